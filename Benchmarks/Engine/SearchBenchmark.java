@@ -0,0 +1,67 @@
+package Engine;
+
+import Game.Board;
+import Game.Positions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchBenchmark searches every corpus position to a fixed depth, with the selective parts of the
+ * search off, one at a time, or all on. A fixed depth keeps the tree the same from run to run, so the
+ * times show what each part saves and a change that makes the search slower shows up as a regression.
+ * Each search starts with a cleared transposition table. One operation is one sweep over the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"none", "nullMove", "lateMoveReductions", "futility", "razoring", "checkExtensions", "all"})
+    public String selective;
+
+    @Param({"5"})
+    public int depth;
+
+    private Board[] boards;
+    private SearchOptions options;
+    private TranspositionTable table;
+
+    @Setup
+    public void setUp() {
+        boards = Positions.boards();
+        table = new TranspositionTable(16);
+        options = selective.equals("all") ? new SearchOptions() : SearchOptions.none();
+        if (selective.equals("nullMove")) {
+            options.setNullMove(true);
+        }
+        else if (selective.equals("lateMoveReductions")) {
+            options.setLateMoveReductions(true);
+        }
+        else if (selective.equals("futility")) {
+            options.setFutility(true);
+        }
+        else if (selective.equals("razoring")) {
+            options.setRazoring(true);
+        }
+        else if (selective.equals("checkExtensions")) {
+            options.setCheckExtensions(true);
+        }
+    }
+
+    @Benchmark
+    public void fixedDepth(Blackhole blackhole) {
+        for (Board board : boards) {
+            table.clear();
+            Search search = new Search(board, table);
+            search.setOptions(options);
+            SearchResult result = search.search(depth, 0);
+            blackhole.consume(result.getBestMove());
+            blackhole.consume(result.getNodes());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package Game;
+
+import Pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PieceMoveBenchmark asks Piece.isAValidMove about every target square, for every piece of one type
+ * on every corpus board. One operation is one full sweep over the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMoveBenchmark {
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING", "LEAPER", "NIGHTRIDER"})
+    public Type type;
+
+    private Board[] boards;
+    private int[] owners;
+    private Piece[] pieces;
+
+    @Setup
+    public void setUp() {
+        boards = Positions.boards();
+        List<Integer> ownerList = new ArrayList<Integer>();
+        List<Piece> pieceList = new ArrayList<Piece>();
+        for (int i = 0; i < boards.length; i++) {
+            for (int square = 0; square < Board.SQUARES; square++) {
+                Piece piece = boards[i].getPieceAt(square);
+                if (piece != null && piece.getType() == type) {
+                    ownerList.add(i);
+                    pieceList.add(piece);
+                }
+            }
+        }
+        owners = new int[ownerList.size()];
+        pieces = new Piece[pieceList.size()];
+        for (int i = 0; i < owners.length; i++) {
+            owners[i] = ownerList.get(i);
+            pieces[i] = pieceList.get(i);
+        }
+    }
+
+    @Benchmark
+    public int isAValidMove() {
+        int valid = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            Board board = boards[owners[i]];
+            Piece piece = pieces[i];
+            int row = piece.getRow();
+            int col = piece.getCol();
+            for (int target = 0; target < Board.SQUARES; target++) {
+                if (piece.isAValidMove(board, row, col, target / 8, target % 8)) {
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+}
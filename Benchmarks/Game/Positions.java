@@ -0,0 +1,39 @@
+package Game;
+
+/**
+ * Positions is the fixed corpus every benchmark runs over, so results from different
+ * runs and different board representations are comparable.
+ * It covers both start setups, busy middlegames with and without the Special Game pieces,
+ * sparse endgames, and positions that are check, checkmate and stalemate.
+ */
+public final class Positions {
+
+    public static final String[] CORPUS = {
+            Board.START_POSITION,
+            Board.SPECIAL_START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w",
+            "r1bqkb1r/lpp2ppx/2np1n2/4p3/2B1P3/2N2N2/XPPP1PPL/R1BQK2R w",
+            "4k3/8/3X4/8/2L1l3/8/8/4K3 b",
+            "7k/8/2R1xp1L/1b1rp3/4p3/4p3/8/2rBK3 b",
+            "4k3/8/8/8/8/8/8/R3K2R w",
+            "rnbqkbnr/pppp1ppp/8/4p3/4P3/5Q2/PPPP1PPP/RNB1KBNR b",
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w",
+            "8/8/8/8/8/6k1/5q2/7K w",
+    };
+
+    private Positions() {
+    }
+
+    /**
+     * boards sets up one board per corpus position
+     * @return the boards, in corpus order
+     */
+    public static Board[] boards() {
+        Board[] boards = new Board[CORPUS.length];
+        for (int i = 0; i < CORPUS.length; i++) {
+            boards[i] = new Board();
+            boards[i].setPosition(CORPUS[i]);
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,32 @@
+package Game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SetupBenchmark times building a new board and placing the pieces of a new game,
+ * which the Gui does on every restart and the engine does for every copied position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetupBenchmark {
+
+    @Benchmark
+    public Board setChessPieces() {
+        Board board = new Board();
+        board.setChessPieces();
+        return board;
+    }
+
+    @Benchmark
+    public Board setSpecialPieces() {
+        Board board = new Board();
+        board.setSpecialPieces();
+        return board;
+    }
+}
@@ -0,0 +1,59 @@
+package Game;
+
+import Gui.Gui;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatusBenchmark times the questions asked after every move: check, checkmate and stalemate
+ * for both players, and the whole status decision the Gui makes from them.
+ * One operation is one sweep over the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusBenchmark {
+
+    private Board[] boards;
+
+    @Setup
+    public void setUp() {
+        boards = Positions.boards();
+    }
+
+    @Benchmark
+    public void check(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.check(board, "WHITE", "BLACK"));
+            blackhole.consume(board.check(board, "BLACK", "WHITE"));
+        }
+    }
+
+    @Benchmark
+    public void checkMate(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.checkMate(board, "WHITE", "BLACK"));
+            blackhole.consume(board.checkMate(board, "BLACK", "WHITE"));
+        }
+    }
+
+    @Benchmark
+    public void staleMate(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.staleMate(board, "WHITE", "BLACK"));
+            blackhole.consume(board.staleMate(board, "BLACK", "WHITE"));
+        }
+    }
+
+    @Benchmark
+    public void guiStatus(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(Gui.getStatus(board));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import Game.MoveBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoveOrderingTest {
+
+    private static int move(Board board, String text) {
+        return board.createMove(Move.parseSquare(text.substring(0, 2)), Move.parseSquare(text.substring(2)));
+    }
+
+    @Test
+    public void testCapturesByMvvLva() throws Exception {
+        Board board = new Board();
+        board.setPosition("4k3/8/2q5/1P1r4/8/1X6/8/Q3K3 w");
+        MoveBuffer moves = new MoveBuffer();
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.score(moves, 0, Move.NONE, Board.WHITE_SIDE);
+        assertEquals("b5c6", Move.toString(ordering.pick(moves, 0, 0)));
+        assertEquals("b3c6", Move.toString(ordering.pick(moves, 0, 1)));
+        assertFalse(Move.isCapture(ordering.pick(moves, 0, 2)));
+    }
+
+    @Test
+    public void testHashMoveThenKillers() throws Exception {
+        Board board = new Board();
+        board.setChessPieces();
+        MoveBuffer moves = new MoveBuffer();
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.cutoff(move(board, "b1c3"), 0, 4, Board.WHITE_SIDE);
+        ordering.cutoff(move(board, "g1f3"), 0, 2, Board.WHITE_SIDE);
+        ordering.score(moves, 0, move(board, "e2e4"), Board.WHITE_SIDE);
+        assertEquals("e2e4", Move.toString(ordering.pick(moves, 0, 0)));
+        assertEquals("g1f3", Move.toString(ordering.pick(moves, 0, 1)));
+        assertEquals("b1c3", Move.toString(ordering.pick(moves, 0, 2)));
+        assertEquals(20, moves.size());
+    }
+}
@@ -0,0 +1,41 @@
+package Engine;
+
+import Game.Board;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PawnTableTest {
+
+    @Test
+    public void testStructureTerms() throws Exception {
+        PawnTable table = new PawnTable(1024);
+        Board board = new Board();
+        board.setPosition("4k3/8/8/8/8/8/PPPPPPPP/4K3 w");
+        assertEquals(0, table.score(board));
+
+        board.setPosition("4k3/8/8/3P4/4p3/3P4/8/4K3 w");
+        assertEquals(1L << Board.square(3, 3), table.passedPawns(board, Board.WHITE_SIDE));
+        assertEquals(0L, table.passedPawns(board, Board.BLACK_SIDE));
+        assertTrue(table.score(board) > 0);
+    }
+
+    @Test
+    public void testHitsAfterFirstProbe() throws Exception {
+        PawnTable table = new PawnTable(1024);
+        Board board = new Board();
+        board.setChessPieces();
+        table.score(board);
+        board.makeMove(board.createMove(Board.square(7, 6), Board.square(5, 5)));
+        table.score(board);
+        assertEquals(2, table.getProbes());
+        assertEquals(1, table.getHits());
+
+        Board fresh = new Board();
+        fresh.setPosition(board.getPosition());
+        assertEquals(fresh.pawnHash(), board.pawnHash());
+        board.unmakeMove();
+        board.makeMove(board.createMove(Board.square(6, 4), Board.square(4, 4)));
+        assertNotEquals(fresh.pawnHash(), board.pawnHash());
+    }
+}
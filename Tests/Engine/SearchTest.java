@@ -0,0 +1,103 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SearchTest {
+
+    private static SearchResult search(String position, int depth) {
+        Board board = new Board();
+        board.setPosition(position);
+        SearchResult result = new Search(board).search(depth, 0);
+        assertEquals(position, board.getPosition());
+        assertFalse(board.canUndo());
+        return result;
+    }
+
+    @Test
+    public void testFindsMateInOne() throws Exception {
+        SearchResult result = search("6k1/5ppp/8/8/8/8/8/R5K1 w", 3);
+        assertEquals("a1a8", Move.toString(result.getBestMove()));
+        assertEquals(Search.MATE - 1, result.getScore());
+    }
+
+    @Test
+    public void testBlackFindsMateInOne() throws Exception {
+        SearchResult result = search("r5k1/8/8/8/8/8/5PPP/6K1 b", 3);
+        assertEquals("a8a1", Move.toString(result.getBestMove()));
+        assertEquals(Search.MATE - 1, result.getScore());
+    }
+
+    @Test
+    public void testTakesHangingQueen() throws Exception {
+        SearchResult result = search("4k3/8/8/3q4/8/8/3R4/4K3 w", 3);
+        assertEquals("d2d5", Move.toString(result.getBestMove()));
+    }
+
+    @Test
+    public void testNightRiderTakesRook() throws Exception {
+        SearchResult result = search("4k3/8/8/8/3r4/8/8/2X1K3 w", 3);
+        assertEquals("c1d4", Move.toString(result.getBestMove()));
+    }
+
+    @Test
+    public void testNoMoveWhenMated() throws Exception {
+        SearchResult result = search("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w", 4);
+        assertEquals(Move.NONE, result.getBestMove());
+        assertEquals(-Search.MATE, result.getScore());
+    }
+
+    @Test
+    public void testSpecialGameSearchRestoresBoard() throws Exception {
+        SearchResult result = search(Board.SPECIAL_START_POSITION, 4);
+        assertNotEquals(Move.NONE, result.getBestMove());
+        assertEquals(4, result.getDepth());
+    }
+
+    @Test
+    public void testParallelSearchFindsMate() throws Exception {
+        Board board = new Board();
+        board.setPosition("r5k1/8/8/8/8/8/5PPP/6K1 b");
+        ParallelSearch search = new ParallelSearch(board, 3);
+        SearchResult result = search.search(4, 0);
+        assertEquals("a8a1", Move.toString(result.getBestMove()));
+        assertEquals(3, search.getThreadNodes().length);
+        assertEquals("r5k1/8/8/8/8/8/5PPP/6K1 b", board.getPosition());
+    }
+
+    @Test
+    public void testSelectiveSearchSavesNodes() throws Exception {
+        String position = "r1bqkb1r/lpp2ppx/2np1n2/4p3/2B1P3/2N2N2/XPPP1PPL/R1BQK2R w";
+        Board board = new Board();
+        board.setPosition(position);
+        Search plain = new Search(board);
+        plain.setOptions(SearchOptions.none());
+        SearchResult full = plain.search(5, 0);
+        SearchResult selective = new Search(board).search(5, 0);
+        assertEquals(5, selective.getDepth());
+        assertTrue(selective.getNodes() * 2 < full.getNodes());
+        assertEquals(position, board.getPosition());
+        assertFalse(board.canUndo());
+    }
+
+    @Test
+    public void testEachSelectivePartFindsMate() throws Exception {
+        for (int part = 0; part < 5; part++) {
+            SearchOptions options = SearchOptions.none();
+            options.setNullMove(part == 0);
+            options.setLateMoveReductions(part == 1);
+            options.setFutility(part == 2);
+            options.setRazoring(part == 3);
+            options.setCheckExtensions(part == 4);
+            Board board = new Board();
+            board.setPosition("6k1/5ppp/8/8/8/8/8/R5K1 w");
+            Search search = new Search(board);
+            search.setOptions(options);
+            SearchResult result = search.search(4, 0);
+            assertEquals(options.toString(), "a1a8", Move.toString(result.getBestMove()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StaticExchangeTest {
+
+    private static int see(String position, String move) {
+        Board board = new Board();
+        board.setPosition(position);
+        int encoded = board.createMove(Move.parseSquare(move.substring(0, 2)), Move.parseSquare(move.substring(2)));
+        return new StaticExchange().see(board, encoded);
+    }
+
+    @Test
+    public void testUndefendedAndDefended() throws Exception {
+        assertEquals(477, see("4k3/8/8/3r4/8/8/8/3RK3 w", "d1d5"));
+        assertEquals(1025 - 477, see("4k3/8/2p5/3q4/8/8/8/3RK3 w", "d1d5"));
+        assertEquals(82 - 1025, see("4k3/8/2p5/3p4/8/8/8/3QK3 w", "d1d5"));
+    }
+
+    @Test
+    public void testXrayBehindSlider() throws Exception {
+        assertEquals(82, see("3rk3/8/8/3p4/8/8/3R4/3RK3 w", "d2d5"));
+        assertEquals(82 - 477, see("3rk3/8/8/3p4/8/8/3R4/4K3 w", "d2d5"));
+    }
+
+    @Test
+    public void testFairyRecaptures() throws Exception {
+        assertEquals(82 - 477, see("4k3/8/8/1l1p4/8/8/8/3RK3 w", "d1d5"));
+        assertEquals(82 - 477, see("4k3/8/8/3p4/x7/8/8/3RK3 w", "d1d5"));
+        assertEquals(82 - 477 + 250, see("4k3/8/8/3p4/x5X1/8/8/3RK3 w", "d1d5"));
+    }
+}
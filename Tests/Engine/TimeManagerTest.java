@@ -0,0 +1,59 @@
+package Engine;
+
+import Game.Board;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeManagerTest {
+
+    @Test
+    public void testClockBudget() throws Exception {
+        TimeManager time = TimeManager.clock(60000, 1000, 0);
+        assertTrue(time.getOptimumMillis() > 1000);
+        assertTrue(time.getMaximumMillis() >= time.getOptimumMillis());
+        assertTrue(time.getMaximumMillis() <= 60000 / 4 + 1000);
+
+        TimeManager last = TimeManager.clock(500, 0, 1);
+        assertTrue(last.getMaximumMillis() <= 500 - TimeManager.MOVE_OVERHEAD);
+        assertTrue(last.getOptimumMillis() >= 1);
+    }
+
+    @Test
+    public void testNodeLimitIsRepeatable() throws Exception {
+        Board board = new Board();
+        board.setPosition(Board.SPECIAL_START_POSITION);
+        SearchResult first = new Search(board).search(30, TimeManager.nodes(20000));
+        SearchResult second = new Search(board).search(30, TimeManager.nodes(20000));
+        assertEquals(first.getNodes(), second.getNodes());
+        assertEquals(first.getBestMove(), second.getBestMove());
+        assertTrue(first.getNodes() <= 20000);
+        assertTrue(first.getDepth() > 1);
+    }
+
+    @Test
+    public void testStopFromAnotherThread() throws Exception {
+        Board board = new Board();
+        board.setChessPieces();
+        final Search search = new Search(board);
+        final TimeManager time = TimeManager.infinite();
+        Thread stopper = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                time.stop();
+            }
+        });
+        stopper.start();
+        SearchResult result = search.search(Search.MAX_PLY - 1, time);
+        stopper.join();
+        assertTrue(result.getDepth() >= 1);
+        assertNotEquals(Game.Move.NONE, result.getBestMove());
+        assertEquals(Board.START_POSITION, board.getPosition());
+    }
+}
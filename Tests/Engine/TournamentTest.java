@@ -0,0 +1,60 @@
+package Engine;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+
+    @Test
+    public void testEloFromScore() throws Exception {
+        assertEquals(0.0, Elo.difference(0.5), 1e-9);
+        assertEquals(190.85, Elo.difference(0.75), 0.01);
+        assertEquals(-Elo.difference(0.64), Elo.difference(0.36), 1e-9);
+
+        Elo few = new Elo();
+        Elo many = new Elo();
+        for (int i = 0; i < 10; i++) {
+            few.add(1);
+            few.add(0.5);
+            few.add(0);
+        }
+        for (int i = 0; i < 1000; i++) {
+            many.add(1);
+            many.add(0.5);
+            many.add(0);
+        }
+        assertEquals(0.0, few.difference(), 1e-9);
+        assertEquals(30, few.getGames());
+        assertTrue(many.errorMargin() < few.errorMargin() / 5);
+        assertTrue(Double.isInfinite(new Elo().errorMargin()));
+    }
+
+    @Test
+    public void testGamesAreStreamedToFile() throws Exception {
+        File output = File.createTempFile("tournament", ".txt");
+        output.deleteOnExit();
+        Tournament tournament = new Tournament(new SearchOptions(), SearchOptions.none());
+        tournament.setGames(4);
+        tournament.setThreads(2);
+        tournament.setMoveNodes(300);
+        tournament.setSpecial(true);
+        tournament.setOutput(output);
+        Elo elo = tournament.run();
+        assertEquals(4, elo.getGames());
+
+        BufferedReader in = new BufferedReader(new FileReader(output));
+        int lines = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            assertTrue(line, line.matches("\\d \\w+ \\w+ (1-0|0-1|1/2-1/2) \".+\" \".+\"( [a-h][1-8][a-h][1-8])+"));
+            lines++;
+        }
+        in.close();
+        assertEquals(4, lines);
+    }
+}
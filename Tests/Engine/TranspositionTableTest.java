@@ -0,0 +1,52 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        Board board = new Board();
+        board.setChessPieces();
+        long key = board.hash();
+        int move = board.createMove(Board.square(6, 4), Board.square(4, 4));
+        assertEquals(0L, table.probe(key));
+
+        table.store(key, move, -1234, 9, TranspositionTable.UPPER);
+        long data = table.probe(key);
+        assertEquals(move, TranspositionTable.move(data));
+        assertEquals(-1234, TranspositionTable.score(data));
+        assertEquals(9, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+        assertEquals(0L, table.probe(key ^ 1));
+
+        table.store(key, Move.NONE, 50, 10, TranspositionTable.LOWER);
+        assertEquals(move, TranspositionTable.move(table.probe(key)));
+    }
+
+    @Test
+    public void testMateScoresAreStoredFromThePosition() throws Exception {
+        int score = Search.MATE - 7;
+        int stored = TranspositionTable.toTable(score, 4);
+        assertEquals(Search.MATE - 3, stored);
+        assertEquals(Search.MATE - 9, TranspositionTable.fromTable(stored, 6));
+        assertEquals(-Search.MATE + 7, TranspositionTable.fromTable(TranspositionTable.toTable(-Search.MATE + 7, 4), 4));
+        assertEquals(35, TranspositionTable.toTable(35, 4));
+    }
+
+    @Test
+    public void testSharedTableKeepsResults() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        Board board = new Board();
+        board.setPosition("6k1/5ppp/8/8/8/8/8/R5K1 w");
+        new Search(board, table).search(3, 0);
+        long data = table.probe(board.hash());
+        assertNotEquals(0L, data);
+        assertEquals("a1a8", Move.toString(TranspositionTable.move(data)));
+    }
+}
@@ -0,0 +1,64 @@
+package Engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class UciTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final Uci uci = new Uci(new PrintStream(output, true));
+
+    private String run(String... commands) {
+        for (String command : commands) {
+            assertTrue(uci.execute(command));
+        }
+        uci.waitForSearch();
+        String text = output.toString();
+        output.reset();
+        return text;
+    }
+
+    @Test
+    public void testHandshake() throws Exception {
+        String text = run("uci", "isready");
+        assertTrue(text.startsWith("id name " + Uci.NAME));
+        assertTrue(text.contains("option name UCI_Variant type combo default chess var chess var special"));
+        assertTrue(text.endsWith("uciok\nreadyok\n"));
+        assertFalse(uci.execute("quit"));
+    }
+
+    @Test
+    public void testSpecialPositionWithMoves() throws Exception {
+        String text = run("setoption name UCI_Variant value special", "position startpos moves a2b5 h7g4", "d");
+        assertTrue(text.contains("position rnbqkbnr/lpppppp1/8/1X6/6x1/8/1PPPPPPL/RNBQKBNR w"));
+
+        text = run("position fen 4k3/8/8/8/8/8/8/4K3 w moves e1e2 e8e6", "d");
+        assertTrue(text.contains("info string illegal move e8e6"));
+        assertTrue(text.contains("position 4k3/8/8/8/8/8/4K3/8 b"));
+
+        text = run("position fen bad", "d");
+        assertTrue(text.contains("info string"));
+        assertTrue(text.contains("position 4k3/8/8/8/8/8/4K3/8 b"));
+    }
+
+    @Test
+    public void testGoFindsMate() throws Exception {
+        String text = run("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "go depth 3");
+        assertTrue(text.contains("score mate 1"));
+        assertTrue(text.endsWith("bestmove a1a8\n"));
+    }
+
+    @Test
+    public void testPonderWaitsForPonderHit() throws Exception {
+        assertTrue(uci.execute("position startpos moves e2e4"));
+        assertTrue(uci.execute("go ponder depth 2 wtime 1000 btime 1000"));
+        Thread.sleep(200);
+        assertFalse(output.toString().contains("bestmove"));
+        String text = run("ponderhit");
+        assertTrue(text.matches("(?s).*bestmove [a-h][1-8][a-h][1-8] ponder [a-h][1-8][a-h][1-8]\n"));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -14,8 +15,8 @@ public class BoardTest {
     Piece whiteKing = new King("WHITE");
 
     public void initializeKings() {
-        board.blackPieces.add(blackKing);
-        board.whitePieces.add(whiteKing);
+        board.addPiece(blackKing);
+        board.addPiece(whiteKing);
     }
 
     @Test
@@ -23,7 +24,7 @@ public class BoardTest {
         Tile start = board.getTile(0,0);
         start.setPiece(blackKing);
         Piece whiteBishop = new Bishop("WHITE");
-        board.whitePieces.add(whiteBishop);
+        board.addPiece(whiteBishop);
         Tile tile = board.getTile(4,4);
         tile.setPiece(whiteBishop);
         List<Board.Pair> attackPieces = new ArrayList<Board.Pair>();
@@ -36,7 +37,7 @@ public class BoardTest {
         Tile start = board.getTile(4,4);
         start.setPiece(whiteKing);
         Piece blackBishop = new Bishop("BLACK");
-        board.blackPieces.add(blackBishop);
+        board.addPiece(blackBishop);
         Tile tile = board.getTile(6,2);
         tile.setPiece(blackBishop);
         List<Board.Pair> attackPieces = new ArrayList<Board.Pair>();
@@ -56,8 +57,8 @@ public class BoardTest {
         tile = board.getTile(6,0);
         Piece blackRook2 = new Rook("BLACK");
         tile.setPiece(blackRook2);
-        board.blackPieces.add(blackRook);
-        board.blackPieces.add(blackRook2);
+        board.addPiece(blackRook);
+        board.addPiece(blackRook2);
         boolean checkMate = board.checkMate(board, "WHITE", "BLACK");
         assertEquals(true, checkMate);
     }
@@ -73,8 +74,8 @@ public class BoardTest {
         tile = board.getTile(6,0);
         Piece whiteQueen = new Queen("WHITE");
         tile.setPiece(whiteQueen);
-        board.whitePieces.add(whiteRook);
-        board.whitePieces.add(whiteQueen);
+        board.addPiece(whiteRook);
+        board.addPiece(whiteQueen);
         boolean checkMate = board.checkMate(board, "BLACK", "WHITE");
         assertEquals(true, checkMate);
     }
@@ -87,7 +88,7 @@ public class BoardTest {
         tile = board.getTile(5,0);
         Piece whiteBishop = new Bishop("WHITE");
         tile.setPiece(whiteBishop);
-        board.whitePieces.add(whiteBishop);
+        board.addPiece(whiteBishop);
         boolean check = board.check(board, "BLACK", "WHITE");
         assertEquals(true, check);
     }
@@ -100,10 +101,251 @@ public class BoardTest {
         tile = board.getTile(5,0);
         Piece blackRook = new Rook("BLACK");
         tile.setPiece(blackRook);
-        board.blackPieces.add(blackRook);
+        board.addPiece(blackRook);
         boolean check = board.check(board, "WHITE", "BLACK");
         assertEquals(true, check);
     }
 
+    @Test
+    public void testBitboardsFollowTiles() throws Exception {
+        board.setSpecialPieces();
+        assertEquals(32, Long.bitCount(board.getOccupied()));
+        assertEquals(0xFFFFL, board.getColorBitboard(Board.BLACK_SIDE));
+        assertEquals(0xFFFFL << 48, board.getColorBitboard(Board.WHITE_SIDE));
+        assertEquals(Type.LEAPER, board.getPiece(1, 0).getType());
+        assertEquals(Board.pieceCode(Board.WHITE_SIDE, Type.NIGHTRIDER), board.getPieceCode(Board.square(6, 0)));
+
+        Tile tile = board.getTile(6, 4);
+        Piece pawn = tile.getPiece();
+        board.getTile(4, 4).setPiece(pawn);
+        tile.removePiece();
+        assertFalse(board.isOccupied(Board.square(6, 4)));
+        assertEquals(1L << Board.square(4, 4), board.getPieceBitboard(Board.WHITE_SIDE, Type.PAWN) & (1L << Board.square(4, 4)));
+        assertEquals(4, pawn.getRow());
+    }
+
+    @Test
+    public void testJumpingPieces() throws Exception {
+        Piece leaper = new Leaper("WHITE");
+        Piece rider = new NightRider("WHITE");
+        board.getTile(4, 4).setPiece(leaper);
+        board.getTile(4, 0).setPiece(rider);
+        board.getTile(2, 4).setPiece(new Pawn("WHITE"));
+        assertFalse(leaper.isAValidMove(board, 4, 4, 2, 4));
+        assertTrue(leaper.isAValidMove(board, 4, 4, 4, 2));
+        assertFalse(leaper.isAValidMove(board, 4, 4, 2, 2));
+        assertTrue(rider.isAValidMove(board, 4, 0, 1, 1));
+        assertTrue(rider.isAValidMove(board, 4, 0, 5, 3));
+        assertFalse(rider.isAValidMove(board, 4, 0, 6, 1));
+        assertEquals(4, Long.bitCount(JumpAttacks.NIGHTRIDER[Board.square(4, 0)]));
+    }
+
+    @Test
+    public void testGenerateMoves() throws Exception {
+        board.setChessPieces();
+        MoveBuffer moves = new MoveBuffer();
+        board.generateMoves("WHITE", moves);
+        assertEquals(20, moves.size());
+
+        Board special = new Board();
+        special.setSpecialPieces();
+        moves.clear();
+        special.generateLegalMoves("BLACK", moves);
+        assertEquals(19, moves.size());
+    }
+
+    @Test
+    public void testLegalMovesKeepKingSafe() throws Exception {
+        board.getTile(7, 4).setPiece(whiteKing);
+        board.getTile(6, 4).setPiece(new Rook("WHITE"));
+        board.getTile(0, 4).setPiece(new Queen("BLACK"));
+        MoveBuffer moves = new MoveBuffer();
+        board.generateLegalMoves("WHITE", moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == Board.square(6, 4)) {
+                assertEquals(4, Move.to(move) % 8);
+            }
+        }
+        assertTrue(moves.contains(Move.encode(Board.square(6, 4), Board.square(0, 4),
+                Board.pieceCode(Board.WHITE_SIDE, Type.ROOK), Board.pieceCode(Board.BLACK_SIDE, Type.QUEEN))));
+    }
+
+    @Test
+    public void testMakeAndUnmakeMove() throws Exception {
+        board.setChessPieces();
+        Pawn whitePawn = (Pawn) board.getPiece(6, 4);
+        Piece blackPawn = board.getPiece(1, 3);
+        board.makeMove(board.createMove(Board.square(6, 4), Board.square(4, 4)));
+        board.makeMove(board.createMove(Board.square(1, 3), Board.square(3, 3)));
+        board.makeMove(board.createMove(Board.square(4, 4), Board.square(3, 3)));
+        assertFalse(whitePawn.isFirstMove());
+        assertEquals(17, board.blackCount);
+        assertFalse(board.blackPieces.contains(blackPawn));
+        assertEquals("BLACK", board.getCurrentPlayer().getPlayerColor());
+
+        board.unmakeMove();
+        board.unmakeMove();
+        board.unmakeMove();
+        assertSame(whitePawn, board.getPiece(6, 4));
+        assertSame(blackPawn, board.getPiece(1, 3));
+        assertTrue(whitePawn.isFirstMove());
+        assertEquals(18, board.blackCount);
+        assertEquals(16, board.blackPieces.size());
+        assertEquals("WHITE", board.getCurrentPlayer().getPlayerColor());
+        assertFalse(board.canUndo());
+    }
+
+    @Test
+    public void testHashIsIncremental() throws Exception {
+        board.setSpecialPieces();
+        long start = board.hash();
+        assertEquals(Zobrist.compute(board), start);
+
+        int knightOut = board.createMove(Board.square(7, 1), Board.square(5, 2));
+        board.makeMove(knightOut);
+        assertEquals(Zobrist.compute(board), board.hash());
+        int leaperOut = board.createMove(Board.square(1, 0), Board.square(3, 0));
+        board.makeMove(leaperOut);
+        long afterTwo = board.hash();
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(start, board.hash());
+
+        board.makeMove(board.createMove(Board.square(1, 0), Board.square(3, 0)));
+        board.updateCurrentPlayer();
+        board.makeMove(board.createMove(Board.square(7, 1), Board.square(5, 2)));
+        board.updateCurrentPlayer();
+        assertEquals(afterTwo, board.hash());
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testAttackMapFollowsBlockers() throws Exception {
+        board.getTile(5, 5).setPiece(whiteKing);
+        board.getTile(5, 0).setPiece(new Rook("BLACK"));
+        assertTrue(board.inCheck(Board.WHITE_SIDE));
+        Tile block = board.getTile(5, 2);
+        block.setPiece(new Knight("WHITE"));
+        assertFalse(board.inCheck(Board.WHITE_SIDE));
+        assertTrue(board.isSquareAttacked(Board.square(5, 2), Board.BLACK_SIDE));
+        assertFalse(board.isSquareAttacked(Board.square(5, 3), Board.BLACK_SIDE));
+        block.removePiece();
+        assertTrue(board.check(board, "WHITE", "BLACK"));
+    }
+
+    @Test
+    public void testPinnedBlockerCannotStopMate() throws Exception {
+        board.getTile(7, 7).setPiece(whiteKing);
+        board.getTile(6, 7).setPiece(new Pawn("WHITE"));
+        board.getTile(4, 4).setPiece(new Rook("WHITE"));
+        board.getTile(7, 0).setPiece(new Rook("BLACK"));
+        board.getTile(2, 2).setPiece(new Bishop("BLACK"));
+        board.getTile(4, 5).setPiece(new Knight("BLACK"));
+        assertEquals(1L << Board.square(4, 4), board.pinnedPieces(Board.WHITE_SIDE));
+        assertTrue(board.checkMate(board, "WHITE", "BLACK"));
+        assertFalse(board.staleMate(board, "WHITE", "BLACK"));
+    }
+
+    @Test
+    public void testLeaperCheckCannotBeBlocked() throws Exception {
+        board.getTile(0, 7).setPiece(blackKing);
+        board.getTile(2, 7).setPiece(new Leaper("WHITE"));
+        board.getTile(2, 4).setPiece(new NightRider("BLACK"));
+        assertTrue(board.inCheck(Board.BLACK_SIDE));
+        assertEquals(0L, board.legalTargets(Board.square(2, 4)));
+        assertTrue(board.hasLegalMove(Board.BLACK_SIDE));
+    }
+
+    @Test
+    public void testCopyKeepsHistory() throws Exception {
+        board.setChessPieces();
+        String[] moves = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (String move : moves) {
+            board.makeMove(board.createMove(Move.parseSquare(move.substring(0, 2)), Move.parseSquare(move.substring(2))));
+        }
+        Board copy = board.copy();
+        assertEquals(board.getPosition(), copy.getPosition());
+        assertEquals(board.hash(), copy.hash());
+        assertEquals(4, copy.getPly());
+        assertTrue(copy.isRepetition());
+        copy.unmakeMove();
+        assertEquals(4, board.getPly());
+        assertTrue(board.isRepetition());
+    }
+
+    @Test
+    public void testNullMovePassesTurn() throws Exception {
+        board.setChessPieces();
+        long hash = board.hash();
+        board.makeNullMove();
+        assertEquals(Board.BLACK_SIDE, board.getSideToMove());
+        assertNotEquals(hash, board.hash());
+        assertFalse(board.isRepetition());
+        Board copy = board.copy();
+        assertEquals(board.hash(), copy.hash());
+        board.unmakeNullMove();
+        assertEquals(hash, board.hash());
+        assertEquals(Board.START_POSITION, board.getPosition());
+        assertFalse(board.canUndo());
+    }
+
+    @Test
+    public void testPieceSquareScoreIsIncremental() throws Exception {
+        board.setSpecialPieces();
+        assertEquals(0, board.getPieceSquareScore());
+        assertEquals(28, board.getPhase());
+        MoveBuffer moves = new MoveBuffer();
+        Random random = new Random(5);
+        for (int i = 0; i < 60; i++) {
+            moves.clear();
+            board.generateLegalMoves(board.getSideToMove(), moves);
+            if (moves.size() == 0) {
+                break;
+            }
+            board.makeMove(moves.get(random.nextInt(moves.size())));
+            Board fresh = new Board();
+            fresh.setPosition(board.getPosition());
+            assertEquals(fresh.getPieceSquareScore(), board.getPieceSquareScore());
+            assertEquals(fresh.getPhase(), board.getPhase());
+        }
+        while (board.canUndo()) {
+            board.unmakeMove();
+        }
+        assertEquals(0, board.getPieceSquareScore());
+    }
+
+    @Test
+    public void testPieceListsKeepTheirIndices() throws Exception {
+        board.setSpecialPieces();
+        MoveBuffer moves = new MoveBuffer();
+        Random random = new Random(11);
+        for (int i = 0; i < 120; i++) {
+            moves.clear();
+            board.generateLegalMoves(board.getSideToMove(), moves);
+            if (moves.size() == 0) {
+                break;
+            }
+            board.makeMove(moves.get(random.nextInt(moves.size())));
+            assertListIndices(board.blackPieces);
+            assertListIndices(board.whitePieces);
+        }
+        while (board.canUndo()) {
+            board.unmakeMove();
+            assertListIndices(board.blackPieces);
+            assertListIndices(board.whitePieces);
+        }
+        assertEquals(16, board.blackPieces.size());
+        assertEquals(16, board.whitePieces.size());
+        Piece blackPawn = board.getPiece(1, 3);
+        board.decreasePieceCount(board.getTile(1, 3));
+        assertFalse(board.blackPieces.contains(blackPawn));
+        assertListIndices(board.blackPieces);
+    }
+
+    private void assertListIndices(List<Piece> pieces) {
+        for (int i = 0; i < pieces.size(); i++) {
+            assertEquals(i, pieces.get(i).getListIndex());
+            assertSame(pieces.get(i), board.getPiece(pieces.get(i).getRow(), pieces.get(i).getCol()));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package Game;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class PerftTest {
+    private static final long MAX_NODES = 200000;
+
+    @Test
+    public void testSuite() throws Exception {
+        for (Object[] entry : Perft.SUITE) {
+            String position = (String) entry[0];
+            long[] counts = (long[]) entry[1];
+            Board board = new Board();
+            board.setPosition(position);
+            Perft perft = new Perft(board);
+            for (int depth = 1; depth <= counts.length && counts[depth - 1] <= MAX_NODES; depth++) {
+                assertEquals(position + " depth " + depth, counts[depth - 1], perft.perft(depth));
+            }
+            assertEquals(position, board.getPosition());
+            assertEquals(Zobrist.compute(board), board.hash());
+        }
+    }
+
+    @Test
+    public void testDivideAddsUp() throws Exception {
+        Board board = new Board();
+        board.setPosition(Board.SPECIAL_START_POSITION);
+        Perft perft = new Perft(board);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(perft.perft(3), perft.divide(3, new PrintStream(out)));
+        assertEquals(19, out.toString().trim().split("\n").length);
+    }
+
+    @Test
+    public void testSetPositionMatchesSetup() throws Exception {
+        Board board = new Board();
+        board.setSpecialPieces();
+        assertEquals(Board.SPECIAL_START_POSITION, board.getPosition());
+    }
+}
@@ -0,0 +1,174 @@
+package Server;
+
+import Game.Board;
+import Game.Move;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class BinaryServerTest {
+
+    private static void putMove(ByteBuffer buffer, int game, String move) {
+        BinaryProtocol.putMove(buffer, game, Move.parseSquare(move.substring(0, 2)), Move.parseSquare(move.substring(2)));
+    }
+
+    private static ByteBuffer exchange(SocketChannel channel, ByteBuffer request, int replyLength) throws Exception {
+        request.flip();
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+        request.clear();
+        ByteBuffer reply = ByteBuffer.allocate(replyLength);
+        while (reply.hasRemaining()) {
+            assertTrue(channel.read(reply) >= 0);
+        }
+        reply.flip();
+        return reply;
+    }
+
+    @Test
+    public void testPipelinedMoves() throws Exception {
+        GameServer games = new GameServer();
+        BinaryServer server = new BinaryServer(games);
+        server.start(0);
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+        try {
+            ByteBuffer request = ByteBuffer.allocate(64 * 1024);
+            BinaryProtocol.putNew(request, false);
+            ByteBuffer reply = exchange(channel, request, 6);
+            assertEquals(BinaryProtocol.NEW, reply.get());
+            assertEquals(GameSession.Validation.OK, BinaryProtocol.validation(reply.get()));
+            int game = reply.getInt();
+
+            String[] moves = {"e7e5", "e2e5", "f2f3", "e7e5", "e1f2", "d8h4", "a2a3", "g2g3"};
+            GameSession.Validation[] validations = {
+                    GameSession.Validation.NO_PIECE, GameSession.Validation.INVALID, GameSession.Validation.OK,
+                    GameSession.Validation.OK, GameSession.Validation.OK, GameSession.Validation.OK,
+                    GameSession.Validation.KING_IN_CHECK, GameSession.Validation.OK
+            };
+            boolean[] checks = {false, false, false, false, false, true, true, false};
+            for (String move : moves) {
+                putMove(request, game, move);
+            }
+            BinaryProtocol.putClose(request, game);
+            BinaryProtocol.putClose(request, game);
+            reply = exchange(channel, request, moves.length * 4 + 2 * 2);
+            for (int i = 0; i < moves.length; i++) {
+                assertEquals(BinaryProtocol.MOVE, reply.get());
+                assertEquals(moves[i], validations[i], BinaryProtocol.validation(reply.get()));
+                assertEquals(GameSession.Result.ONGOING, BinaryProtocol.result(reply.get()));
+                assertEquals(moves[i], checks[i], reply.get() == 1);
+            }
+            assertEquals(BinaryProtocol.CLOSE, reply.get());
+            assertEquals(GameSession.Validation.OK, BinaryProtocol.validation(reply.get()));
+            assertEquals(BinaryProtocol.CLOSE, reply.get());
+            assertEquals(GameSession.Validation.NO_GAME, BinaryProtocol.validation(reply.get()));
+            assertEquals(0, games.getGameCount());
+        }
+        finally {
+            channel.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testUnreadableGameIsUnavailable() throws Exception {
+        SessionStore store = new SessionStore(1, Files.createTempDirectory("sessions").toFile());
+        GameServer games = new GameServer(store);
+        games.newGame(Board.START_POSITION);
+        games.newGame(Board.START_POSITION);
+        store.flush();
+        FileOutputStream out = new FileOutputStream(new File(store.getDirectory(), "1.game"));
+        out.write(1);
+        out.close();
+        BinaryServer server = new BinaryServer(games);
+        server.start(0);
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+        try {
+            ByteBuffer request = ByteBuffer.allocate(64);
+            putMove(request, 1, "e2e4");
+            BinaryProtocol.putJoin(request, 1, 0);
+            putMove(request, 2, "e2e4");
+            ByteBuffer reply = exchange(channel, request, 4 + 2 + 4);
+            assertEquals(BinaryProtocol.MOVE, reply.get());
+            assertEquals(GameSession.Validation.UNAVAILABLE, BinaryProtocol.validation(reply.get()));
+            assertEquals(0, reply.getShort());
+            assertEquals(BinaryProtocol.JOIN, reply.get());
+            assertEquals(GameSession.Validation.UNAVAILABLE, BinaryProtocol.validation(reply.get()));
+            assertEquals(BinaryProtocol.MOVE, reply.get());
+            assertEquals(GameSession.Validation.OK, BinaryProtocol.validation(reply.get()));
+        }
+        finally {
+            channel.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testRequestsForGamesOnDiskKeepTheirOrder() throws Exception {
+        SessionStore store = new SessionStore(1, Files.createTempDirectory("sessions").toFile());
+        GameServer games = new GameServer(store);
+        games.newGame(Board.START_POSITION);
+        games.newGame(Board.START_POSITION);
+        store.flush();
+        BinaryServer server = new BinaryServer(games);
+        server.start(0);
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+        try {
+            ByteBuffer request = ByteBuffer.allocate(64);
+            String[] moves = {"e2e4", "d2d4", "e7e5", "d7d5", "g1f3", "e5d4"};
+            int[] ids = {1, 2, 1, 2, 1, 2};
+            GameSession.Validation[] validations = {
+                    GameSession.Validation.OK, GameSession.Validation.OK, GameSession.Validation.OK,
+                    GameSession.Validation.OK, GameSession.Validation.OK, GameSession.Validation.NO_PIECE
+            };
+            for (int i = 0; i < moves.length; i++) {
+                putMove(request, ids[i], moves[i]);
+            }
+            ByteBuffer reply = exchange(channel, request, moves.length * 4);
+            for (int i = 0; i < moves.length; i++) {
+                assertEquals(BinaryProtocol.MOVE, reply.get());
+                assertEquals(moves[i], validations[i], BinaryProtocol.validation(reply.get()));
+                reply.getShort();
+            }
+            assertTrue(store.getLoads() >= 1);
+        }
+        finally {
+            channel.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testLargeBatchIsAnsweredInOrder() throws Exception {
+        BinaryServer server = new BinaryServer(new GameServer());
+        server.start(0);
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+        try {
+            ByteBuffer request = ByteBuffer.allocate(64 * 1024);
+            BinaryProtocol.putNew(request, true);
+            int game = exchange(channel, request, 6).getInt(2);
+            String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+            int moves = 6000;
+            for (int i = 0; i < moves; i++) {
+                putMove(request, game, shuffle[i % shuffle.length]);
+            }
+            ByteBuffer reply = exchange(channel, request, moves * 4);
+            for (int i = 0; i < moves; i++) {
+                assertEquals(GameSession.Validation.OK, BinaryProtocol.validation(reply.get(i * 4 + 1)));
+            }
+            assertEquals(moves + 1, server.getRequests());
+        }
+        finally {
+            channel.close();
+            server.close();
+        }
+    }
+}
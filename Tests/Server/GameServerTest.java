@@ -0,0 +1,110 @@
+package Server;
+
+import Game.Move;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class GameServerTest {
+
+    @Test
+    public void testTurnsAndCheckmate() throws Exception {
+        GameServer server = new GameServer();
+        GameServer.Client white = new GameServer.Client();
+        GameServer.Client black = new GameServer.Client();
+        assertEquals("game 1", server.execute(white, "new"));
+        assertEquals("ok", server.execute(white, "join 1 white"));
+        assertEquals("ok", server.execute(black, "join 1 black"));
+        assertEquals("error side taken", server.execute(black, "join 1 white"));
+        assertEquals("error bad side", server.execute(black, "join 1 blue"));
+        assertEquals("error bad side", server.execute(black, "join 1"));
+
+        assertEquals("error not your turn", server.execute(black, "move 1 e7e5"));
+        assertEquals("error illegal move e2e5", server.execute(white, "move 1 e2e5"));
+        assertEquals("ok ONGOING", server.execute(white, "move 1 f2f3"));
+        assertEquals("error not your turn", server.execute(white, "move 1 e2e4"));
+        assertEquals("ok ONGOING", server.execute(black, "move 1 e7e5"));
+        assertEquals("ok ONGOING", server.execute(white, "move 1 g2g4"));
+        assertEquals("ok BLACK_WINS", server.execute(black, "move 1 d8h4"));
+        assertTrue(server.execute(white, "move 1 a2a3").startsWith("error game over"));
+        assertEquals("position rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w BLACK_WINS",
+                server.execute(black, "show 1"));
+
+        assertEquals("ok", server.execute(white, "join 1 white"));
+        assertEquals(1, white.getJoined().size());
+        assertEquals("ok", server.execute(white, "close 1"));
+        assertTrue(white.getJoined().isEmpty());
+        assertEquals("error no game 1", server.execute(white, "show 1"));
+        assertEquals(0, server.getGameCount());
+    }
+
+    @Test
+    public void testSubmitReportsTheGameItsMoveLeft() {
+        GameSession game = new GameSession(1, Game.Board.START_POSITION);
+        game.move(null, "f2f3");
+        game.move(null, "e7e5");
+        game.move(null, "g2g4");
+        GameSession.Outcome outcome = game.submit(null, Move.parseSquare("d8"), Move.parseSquare("h4"));
+        assertEquals(GameSession.Validation.OK, outcome.getValidation());
+        assertEquals(GameSession.Result.BLACK_WINS, outcome.getResult());
+        assertTrue(outcome.isCheck());
+        outcome = game.submit(null, Move.parseSquare("a2"), Move.parseSquare("a3"));
+        assertEquals(GameSession.Validation.GAME_OVER, outcome.getValidation());
+        assertEquals(GameSession.Result.BLACK_WINS, outcome.getResult());
+    }
+
+    @Test
+    public void testManyGamesOverSockets() throws Exception {
+        final GameServer server = new GameServer();
+        server.start(0);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 40; i++) {
+                results.add(clients.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        Socket socket = new Socket("localhost", server.getPort());
+                        try {
+                            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                            out.println("new special");
+                            String id = in.readLine().substring("game ".length());
+                            String[] moves = {"a2b5", "h7g4", "b5a8", "g4h1"};
+                            for (String move : moves) {
+                                out.println("move " + id + " " + move);
+                                assertEquals("ok ONGOING", in.readLine());
+                            }
+                            out.println("show " + id);
+                            String reply = in.readLine();
+                            out.println("quit");
+                            return reply;
+                        }
+                        finally {
+                            socket.close();
+                        }
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                assertEquals("position Xnbqkbnr/lpppppp1/8/8/8/8/1PPPPPPL/RNBQKBNx w ONGOING", result.get());
+            }
+            assertEquals(40, server.getGameCount());
+        }
+        finally {
+            clients.shutdownNow();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package Server;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SessionStoreTest {
+
+    private static SessionStore store(int capacity) throws Exception {
+        return new SessionStore(capacity, Files.createTempDirectory("sessions").toFile());
+    }
+
+    @Test
+    public void testEvictedGamesReloadOnTheirNextMove() throws Exception {
+        SessionStore store = store(2);
+        GameServer server = new GameServer(store);
+        GameServer.Client white = new GameServer.Client();
+        GameServer.Client black = new GameServer.Client();
+        for (int i = 1; i <= 5; i++) {
+            assertEquals("game " + i, server.execute(white, "new"));
+            assertEquals("ok", server.execute(white, "join " + i + " white"));
+            assertEquals("ok", server.execute(black, "join " + i + " black"));
+            assertEquals("ok ONGOING", server.execute(white, "move " + i + " f2f3"));
+        }
+        store.flush();
+        assertEquals(5, server.getGameCount());
+        assertEquals(2, store.getResident());
+        assertEquals(3, store.getDirectory().list().length);
+
+        assertEquals("error not your turn", server.execute(white, "move 1 e7e5"));
+        assertEquals("ok ONGOING", server.execute(black, "move 1 e7e5"));
+        assertEquals("ok ONGOING", server.execute(white, "move 1 g2g4"));
+        assertEquals("ok BLACK_WINS", server.execute(black, "move 1 d8h4"));
+        assertTrue(store.getLoads() > 0);
+        store.flush();
+        assertEquals(2, store.getResident());
+
+        for (int i = 2; i <= 5; i++) {
+            server.execute(black, "show " + i);
+        }
+        assertEquals("position rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w BLACK_WINS",
+                server.execute(white, "show 1"));
+
+        assertEquals("ok", server.execute(white, "close 1"));
+        assertEquals("ok", server.execute(white, "close 2"));
+        assertEquals(3, server.getGameCount());
+        assertEquals("error no game 1", server.execute(white, "show 1"));
+    }
+
+    @Test
+    public void testMovesAndPlayersSurviveEviction() throws Exception {
+        SessionStore store = store(1);
+        GameServer server = new GameServer(store);
+        GameServer.Client white = new GameServer.Client();
+        GameServer.Client other = new GameServer.Client();
+        GameSession game = server.newGame(Game.Board.START_POSITION);
+        assertEquals("ok", server.execute(white, "join " + game.getId() + " white"));
+        game.move(white, "g1f3");
+        game.move(null, "g8f6");
+        game.move(white, "f3g1");
+        game.move(null, "f6g8");
+
+        server.newGame(Game.Board.START_POSITION);
+        store.flush();
+        assertEquals(1, store.getEvictions());
+        assertTrue(new File(store.getDirectory(), game.getId() + ".game").length() < 100);
+
+        GameSession loaded = server.acquireGame(game.getId());
+        try {
+            assertNotSame(game, loaded);
+            assertEquals(game.getPosition(), loaded.getPosition());
+            assertEquals(GameSession.Validation.NOT_YOUR_TURN, loaded.submit(other, 62, 45).getValidation());
+            assertEquals(GameSession.Validation.OK, loaded.submit(white, 62, 45).getValidation());
+        }
+        finally {
+            server.releaseGame(loaded);
+        }
+
+        server.newGame(Game.Board.START_POSITION);
+        store.flush();
+        server.leaveAll(white);
+        loaded = server.acquireGame(game.getId());
+        try {
+            assertEquals(GameSession.Validation.OK, loaded.submit(null, 6, 21).getValidation());
+            assertEquals(GameSession.Validation.OK, loaded.submit(other, 45, 62).getValidation());
+        }
+        finally {
+            server.releaseGame(loaded);
+        }
+    }
+
+    @Test
+    public void testLongGamesSaveEveryMove() throws Exception {
+        GameSession game = new GameSession(1, Game.Board.START_POSITION);
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int i = 0; i < 65536; i++) {
+            game.move(null, shuffle[i % shuffle.length]);
+        }
+        game.move(null, "e2e4");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        game.save(new DataOutputStream(bytes));
+        GameSession loaded = GameSession.load(1, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(game.getPosition(), loaded.getPosition());
+    }
+
+    @Test
+    public void testGamesSpillAndLoadFromManyThreads() throws Exception {
+        final SessionStore store = store(3);
+        final GameServer server = new GameServer(store);
+        final String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int i = 0; i < 24; i++) {
+            server.newGame(Game.Board.START_POSITION);
+        }
+        ExecutorService threads = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int t = 0; t < 6; t++) {
+                final int first = t * 4 + 1;
+                results.add(threads.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        GameServer.Client client = new GameServer.Client();
+                        for (int move = 0; move < 100; move++) {
+                            for (int id = first; id < first + 4; id++) {
+                                String reply = server.execute(client, "move " + id + " " + shuffle[move % shuffle.length]);
+                                if (!reply.equals("ok ONGOING")) {
+                                    return reply;
+                                }
+                            }
+                        }
+                        return "ok";
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                assertEquals("ok", result.get());
+            }
+        }
+        finally {
+            threads.shutdown();
+        }
+        store.flush();
+        assertEquals(24, store.size());
+        assertTrue(store.getResident() <= 3);
+        assertEquals(21, store.getDirectory().list().length);
+        for (int id = 1; id <= 24; id++) {
+            assertEquals("position " + Game.Board.START_POSITION + " ONGOING",
+                    server.execute(new GameServer.Client(), "show " + id));
+        }
+    }
+
+    @Test
+    public void testGamesThatCannotBeWrittenStayInMemory() throws Exception {
+        SessionStore store = store(1);
+        assertTrue(store.getDirectory().delete());
+        GameServer server = new GameServer(store);
+        GameServer.Client client = new GameServer.Client();
+        assertEquals("game 1", server.execute(client, "new"));
+        assertEquals("game 2", server.execute(client, "new"));
+        store.flush();
+        assertEquals(2, store.getResident());
+        assertEquals(0, store.getEvictions());
+        assertEquals("ok ONGOING", server.execute(client, "move 1 e2e4"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testUnreadableGamesAreReportedAndServingGoesOn() throws Exception {
+        SessionStore store = store(1);
+        GameServer server = new GameServer(store);
+        GameServer.Client client = new GameServer.Client();
+        assertEquals("game 1", server.execute(client, "new"));
+        assertEquals("game 2", server.execute(client, "new"));
+        store.flush();
+        FileOutputStream out = new FileOutputStream(new File(store.getDirectory(), "1.game"));
+        out.write(new byte[]{0, 40, 'r'});
+        out.close();
+        assertEquals("error cannot load game 1", server.execute(client, "move 1 e2e4"));
+        assertEquals("error cannot load game 1", server.execute(client, "show 1"));
+        assertEquals("ok ONGOING", server.execute(client, "move 2 e2e4"));
+    }
+
+    @Test
+    public void testLeavingDoesNotKeepAGameInMemory() throws Exception {
+        SessionStore store = store(2);
+        GameServer server = new GameServer(store);
+        GameServer.Client client = new GameServer.Client();
+        server.execute(client, "new");
+        server.execute(client, "new");
+        assertEquals("ok", server.execute(client, "join 1 white"));
+        server.execute(client, "show 2");
+        server.leaveAll(client);
+        server.execute(client, "new");
+        store.flush();
+        assertTrue(new File(store.getDirectory(), "1.game").isFile());
+        assertFalse(new File(store.getDirectory(), "2.game").isFile());
+    }
+
+    @Test
+    public void testPinnedGamesStayInMemory() throws Exception {
+        SessionStore store = store(1);
+        GameServer server = new GameServer(store);
+        GameSession first = server.newGame(Game.Board.START_POSITION);
+        GameSession pinned = server.acquireGame(first.getId());
+        server.newGame(Game.Board.START_POSITION);
+        store.flush();
+        assertSame(first, pinned);
+        assertEquals(2, store.getResident());
+        server.releaseGame(pinned);
+        server.newGame(Game.Board.START_POSITION);
+        store.flush();
+        assertEquals(1, store.getResident());
+        assertEquals(3, store.size());
+        assertEquals(1, store.evictIdle(-1000));
+        assertEquals(0, store.getResident());
+        assertEquals(3, store.getEvictions());
+    }
+}
@@ -0,0 +1,102 @@
+package Engine;
+
+/**
+ * Elo keeps the score of one engine against another and turns it into an Elo difference.
+ * The error margin is the 95% confidence interval of the difference, worked out from the
+ * spread of the single game results (wins, draws and losses) around the mean score.
+ * Results may be added from several threads.
+ */
+public class Elo {
+
+    private static final double Z_95 = 1.959964;
+
+    private int wins;
+    private int draws;
+    private int losses;
+
+    /**
+     * add counts the result of a game
+     * @param score 1 for a win, 0.5 for a draw, 0 for a loss
+     */
+    public synchronized void add(double score) {
+        if (score > 0.75) {
+            wins++;
+        }
+        else if (score < 0.25) {
+            losses++;
+        }
+        else {
+            draws++;
+        }
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * score returns the share of the points won
+     * @return the score between 0 and 1, 0.5 if no game was played
+     */
+    public synchronized double score() {
+        int games = wins + draws + losses;
+        return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+    }
+
+    /**
+     * difference returns the Elo difference the score stands for
+     * @return the difference, infinite if every game was won or lost
+     */
+    public double difference() {
+        return difference(score());
+    }
+
+    /**
+     * errorMargin returns half the width of the 95% confidence interval of the difference
+     * @return the margin in Elo, infinite if every game was won or lost
+     */
+    public synchronized double errorMargin() {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = score();
+        double variance = (wins * Math.pow(1 - mean, 2) + draws * Math.pow(0.5 - mean, 2)
+                + losses * Math.pow(mean, 2)) / games;
+        double deviation = Math.sqrt(variance / games);
+        return (difference(mean + Z_95 * deviation) - difference(mean - Z_95 * deviation)) / 2;
+    }
+
+    /**
+     * difference converts a score into an Elo difference with the logistic curve
+     * @param score the score between 0 and 1
+     * @return the difference
+     */
+    public static double difference(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Elo %+.1f +/- %.1f, %d games (W %d D %d L %d), score %.1f%%",
+                difference(), errorMargin(), getGames(), wins, draws, losses, 100 * score());
+    }
+}
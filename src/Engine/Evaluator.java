@@ -0,0 +1,47 @@
+package Engine;
+
+import Game.Board;
+
+/**
+ * Evaluator scores a position in centipawns from the point of view of the side to move.
+ * The score is the board's material and piece-square score, which the board keeps up to date
+ * on every move, the pawn structure score from a PawnTable, and a small bonus for every square
+ * a side attacks, read from the attack maps. Evaluating therefore takes a handful of reads
+ * and no move generation whenever the pawn structure is already in the table.
+ *
+ * The pawn table is not shared, so each search thread needs its own Evaluator.
+ */
+public class Evaluator {
+
+    private static final int MOBILITY = 2;
+
+    private final PawnTable pawnTable;
+
+    public Evaluator(PawnTable pawnTable) {
+        this.pawnTable = pawnTable;
+    }
+
+    public Evaluator() {
+        this(new PawnTable());
+    }
+
+    /**
+     * evaluate scores the position on the board
+     * @param board the board to score
+     * @return the score for the side to move, positive when it is ahead
+     */
+    public int evaluate(Board board) {
+        int score = board.getPieceSquareScore() + pawnTable.score(board);
+        score += MOBILITY * (Long.bitCount(board.getAttackMap(Board.WHITE_SIDE))
+                - Long.bitCount(board.getAttackMap(Board.BLACK_SIDE)));
+        return board.getSideToMove() == Board.WHITE_SIDE ? score : -score;
+    }
+
+    /**
+     * getPawnTable returns the pawn structure cache, e.g. to read its hit rate
+     * @return the pawn table
+     */
+    public PawnTable getPawnTable() {
+        return pawnTable;
+    }
+}
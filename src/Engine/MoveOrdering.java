@@ -0,0 +1,166 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import Game.MoveBuffer;
+import Game.PieceSquareTables;
+import Game.Type;
+
+/**
+ * MoveOrdering decides which move the search tries next. Moves are handed out in stages:
+ * the hash move first, then captures by most valuable victim / least valuable attacker (MVV-LVA),
+ * then the two killer moves of the ply, then the remaining quiet moves by their history score.
+ *
+ * Every move gets a score when the list is generated, and pick finds the best of the moves not
+ * tried yet, so a node that is cut off after one or two moves never sorts the rest.
+ * Scores, killers and history live in arrays made once per search thread, so ordering a node
+ * allocates nothing.
+ */
+public class MoveOrdering {
+
+    private static final int HASH_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 24;
+    private static final int KILLER = 1 << 22;
+    private static final int HISTORY_MAX = 1 << 20;
+
+    /**
+     * What a piece is worth when ordering captures, indexed by Type.ordinal().
+     * The king can never be taken, but as an attacker it ranks after every other piece.
+     */
+    private static final int[] ORDER_VALUES = new int[PieceSquareTables.MIDGAME_VALUES.length];
+
+    static {
+        for (int i = 0; i < ORDER_VALUES.length; i++) {
+            ORDER_VALUES[i] = PieceSquareTables.MIDGAME_VALUES[i];
+        }
+        ORDER_VALUES[Type.KING.ordinal()] = 2000;
+    }
+
+    private final int[][] scores = new int[Search.MAX_PLY][MoveBuffer.DEFAULT_CAPACITY];
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    private final int[][] history = new int[2][Board.SQUARES * Board.SQUARES];
+
+    /**
+     * newSearch forgets the killers and halves the history, so the last search's
+     * experience still counts but fades
+     */
+    public void newSearch() {
+        for (int[] killer : killers) {
+            killer[0] = Move.NONE;
+            killer[1] = Move.NONE;
+        }
+        for (int[] table : history) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * score gives every move of a node its ordering score
+     * @param moves the moves of the node
+     * @param ply the distance of the node from the root
+     * @param hashMove the move to try first, or Move.NONE
+     * @param side the side to move
+     */
+    public void score(MoveBuffer moves, int ply, int hashMove, int side) {
+        int[] score = scores[ply];
+        int[] killer = killers[ply];
+        int[] sideHistory = history[side];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (move == hashMove) {
+                score[i] = HASH_MOVE;
+            }
+            else if (Move.isCapture(move)) {
+                score[i] = CAPTURE + mvvLva(move);
+            }
+            else if (move == killer[0]) {
+                score[i] = KILLER + 1;
+            }
+            else if (move == killer[1]) {
+                score[i] = KILLER;
+            }
+            else {
+                score[i] = sideHistory[butterfly(move)];
+            }
+        }
+    }
+
+    /**
+     * pick swaps the best scored move not tried yet into place index and returns it
+     * @param moves the moves of the node, already scored
+     * @param ply the distance of the node from the root
+     * @param index how many moves have been picked so far
+     * @return the move to try next
+     */
+    public int pick(MoveBuffer moves, int ply, int index) {
+        int[] score = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (score[i] > score[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int bestScore = score[best];
+            score[best] = score[index];
+            score[index] = bestScore;
+        }
+        return move;
+    }
+
+    /**
+     * cutoff remembers a quiet move that refuted a node: it becomes a killer of the ply
+     * and its history score grows with the depth that was searched
+     * @param move the move that caused the cut-off
+     * @param ply the distance of the node from the root
+     * @param depth the depth of the node
+     * @param side the side that played the move
+     */
+    public void cutoff(int move, int ply, int depth, int side) {
+        if (Move.isCapture(move)) {
+            return;
+        }
+        int[] killer = killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int[] sideHistory = history[side];
+        int index = butterfly(move);
+        sideHistory[index] += depth * depth;
+        if (sideHistory[index] >= HISTORY_MAX) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * mvvLva scores a capture: the victim's value counts most, and a cheaper attacker breaks ties
+     * @param move a capture
+     * @return the ordering score within the captures
+     */
+    public static int mvvLva(int move) {
+        int victim = value(Move.captured(move));
+        int attacker = value(Move.piece(move));
+        return victim * 16 - attacker / 16;
+    }
+
+    /**
+     * value returns what a piece code is worth when ordering captures
+     * @param code a piece code
+     * @return the value in centipawns
+     */
+    public static int value(int code) {
+        return ORDER_VALUES[Board.typeOf(code).ordinal()];
+    }
+
+    private static int butterfly(int move) {
+        return Move.from(move) * Board.SQUARES + Move.to(move);
+    }
+}
@@ -0,0 +1,208 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+
+/**
+ * ParallelSearch searches one position on several threads at once ("lazy SMP").
+ * Every thread runs an ordinary Search on its own copy of the board; the threads only share
+ * the transposition table, so what one thread finds shortens the search of the others.
+ * Thread 0 is the main search and decides when to stop, the other threads are helpers that
+ * leave out some depths so they are ahead of or behind the main search.
+ * The result is taken from the thread that finished the deepest iteration, preferring the main search.
+ */
+public class ParallelSearch {
+
+    private final Board board;
+    private final int threads;
+    private final TranspositionTable table;
+
+    private long[] threadNodes = new long[0];
+    private long millis;
+    private SearchOptions options = new SearchOptions();
+    private volatile TimeManager time = TimeManager.infinite();
+
+    /**
+     * Constructor ParallelSearch prepares a search with a number of threads
+     * @param board the board to search; it is copied, never changed
+     * @param threads the number of threads, at least 1
+     * @param table the transposition table all threads share
+     */
+    public ParallelSearch(Board board, int threads, TranspositionTable table) {
+        this.board = board;
+        this.threads = Math.max(1, threads);
+        this.table = table;
+    }
+
+    public ParallelSearch(Board board, int threads) {
+        this(board, threads, new TranspositionTable());
+    }
+
+    /**
+     * search looks for the best move on all threads with a fixed time budget
+     * @param maxDepth the deepest iteration to search
+     * @param maxMillis the time budget in milliseconds, or 0 for no limit
+     * @return the result of the thread that got deepest
+     */
+    public SearchResult search(int maxDepth, long maxMillis) {
+        return search(maxDepth, maxMillis > 0 ? TimeManager.fixedTime(maxMillis) : TimeManager.infinite());
+    }
+
+    /**
+     * search looks for the best move on all threads and waits for them to finish.
+     * All threads share the time manager; once the main search returns it is stopped,
+     * which stops the helpers.
+     * @param maxDepth the deepest iteration to search
+     * @param time the budget
+     * @return the result of the thread that got deepest
+     */
+    public SearchResult search(final int maxDepth, final TimeManager time) {
+        this.time = time;
+        final Search[] searches = new Search[threads];
+        final SearchResult[] results = new SearchResult[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(board.copy(), table);
+            searches[i].setHelper(i);
+            searches[i].setOptions(options);
+        }
+
+        long start = System.currentTimeMillis();
+        Thread[] workers = new Thread[threads];
+        for (int i = 1; i < threads; i++) {
+            final int index = i;
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    results[index] = searches[index].search(maxDepth, time);
+                }
+            }, "search-helper-" + i);
+            workers[i].start();
+        }
+        results[0] = searches[0].search(maxDepth, time);
+        time.stop();
+        for (int i = 1; i < threads; i++) {
+            try {
+                workers[i].join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        millis = Math.max(1, System.currentTimeMillis() - start);
+
+        threadNodes = new long[threads];
+        long nodes = 0;
+        SearchResult best = results[0];
+        for (int i = 0; i < threads; i++) {
+            threadNodes[i] = searches[i].getNodes();
+            nodes += threadNodes[i];
+            SearchResult result = results[i];
+            if (result != null && result.getBestMove() != Move.NONE && result.getDepth() > best.getDepth()) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), nodes, millis,
+                best.getPrincipalVariation());
+    }
+
+    /**
+     * stop asks a running search to finish as soon as possible; it can be called from any thread
+     */
+    public void stop() {
+        time.stop();
+    }
+
+    /**
+     * setOptions chooses the selective parts of the search for every thread
+     * @param options the options to use
+     */
+    public void setOptions(SearchOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * getThreads returns how many threads the search runs on
+     * @return the thread count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * getThreadNodes returns how many positions each thread visited in the last search
+     * @return the node count of every thread, main search first
+     */
+    public long[] getThreadNodes() {
+        return threadNodes;
+    }
+
+    /**
+     * getThreadNodesPerSecond returns how fast each thread searched in the last search
+     * @return the nodes per second of every thread, main search first
+     */
+    public long[] getThreadNodesPerSecond() {
+        long[] nps = new long[threadNodes.length];
+        for (int i = 0; i < nps.length; i++) {
+            nps[i] = threadNodes[i] * 1000 / Math.max(1, millis);
+        }
+        return nps;
+    }
+
+    /**
+     * getNodesPerSecond returns how fast all threads together searched in the last search
+     * @return the total nodes per second
+     */
+    public long getNodesPerSecond() {
+        long nodes = 0;
+        for (long n : threadNodes) {
+            nodes += n;
+        }
+        return nodes * 1000 / Math.max(1, millis);
+    }
+
+    /**
+     * speedup searches a position to a fixed depth on one thread and then on several,
+     * each with a fresh table, and compares the time taken to reach the depth
+     * @param board the position to search
+     * @param threads the number of threads to compare with one
+     * @param depth the depth both searches go to
+     * @param megabytes the size of the transposition tables
+     * @return the single thread time divided by the multi thread time
+     */
+    public static double speedup(Board board, int threads, int depth, int megabytes) {
+        ParallelSearch single = new ParallelSearch(board, 1, new TranspositionTable(megabytes));
+        single.search(depth, 0);
+        ParallelSearch parallel = new ParallelSearch(board, threads, new TranspositionTable(megabytes));
+        parallel.search(depth, 0);
+        return (double) single.millis / parallel.millis;
+    }
+
+    /**
+     * main reports the speedup and the nodes per second of every thread.
+     * Usage: ParallelSearch threads depth ["position"]
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: ParallelSearch threads depth [\"position\"]");
+            return;
+        }
+        int threads = Integer.parseInt(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        Board board = new Board();
+        board.setPosition(args.length > 2 ? args[2] : Board.START_POSITION);
+
+        ParallelSearch single = new ParallelSearch(board, 1);
+        SearchResult one = single.search(depth, 0);
+        System.out.println("1 thread: " + one + " nps " + single.getNodesPerSecond());
+
+        ParallelSearch parallel = new ParallelSearch(board, threads);
+        SearchResult many = parallel.search(depth, 0);
+        System.out.println(threads + " threads: " + many + " nps " + parallel.getNodesPerSecond());
+        long[] nps = parallel.getThreadNodesPerSecond();
+        for (int i = 0; i < nps.length; i++) {
+            System.out.println("  thread " + i + " nodes " + parallel.getThreadNodes()[i] + " nps " + nps[i]);
+        }
+        System.out.println("speedup " + (double) one.getMillis() / Math.max(1, many.getMillis()));
+        System.out.println("nps scaling " + (double) parallel.getNodesPerSecond() / Math.max(1, single.getNodesPerSecond()));
+    }
+}
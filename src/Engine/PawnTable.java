@@ -0,0 +1,192 @@
+package Engine;
+
+import Game.Board;
+import Game.PieceSquareTables;
+import Game.Type;
+
+/**
+ * PawnTable scores the pawn structure and remembers the result by the board's pawnHash(),
+ * so the structure is only worked out again after a pawn moves or is taken.
+ * Doubled and isolated pawns are penalised and passed pawns get a bonus that grows as they advance.
+ * Each entry keeps the middlegame and endgame score from white's side and the passed pawns of both sides.
+ *
+ * A table belongs to one search thread; it counts its probes and hits so the hit rate can be checked.
+ */
+public class PawnTable {
+
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+
+    /**
+     * Passed pawn bonus by the number of rows the pawn has advanced from its starting row
+     */
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 20, 35, 60, 0, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 40, 70, 110, 0, 0};
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    private static final long[][] PASSED_SPAN = new long[2][Board.SQUARES];
+
+    static {
+        for (int col = 0; col < 8; col++) {
+            for (int row = 0; row < 8; row++) {
+                FILES[col] |= 1L << Board.square(row, col);
+            }
+        }
+        for (int col = 0; col < 8; col++) {
+            ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0L) | (col < 7 ? FILES[col + 1] : 0L);
+        }
+        for (int square = 0; square < Board.SQUARES; square++) {
+            int row = square / 8;
+            long span = FILES[square % 8] | ADJACENT_FILES[square % 8];
+            for (int r = 0; r < 8; r++) {
+                long rowMask = 0xFFL << (r * 8);
+                if (r < row) {
+                    PASSED_SPAN[Board.WHITE_SIDE][square] |= span & rowMask;
+                }
+                else if (r > row) {
+                    PASSED_SPAN[Board.BLACK_SIDE][square] |= span & rowMask;
+                }
+            }
+        }
+    }
+
+    private final long[] keys;
+    private final int[] midgame;
+    private final int[] endgame;
+    private final long[][] passed;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * Constructor PawnTable makes a table with a number of entries
+     * @param entries the number of entries, rounded down to a power of two
+     */
+    public PawnTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        midgame = new int[size];
+        endgame = new int[size];
+        passed = new long[2][size];
+        mask = size - 1;
+    }
+
+    public PawnTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * probe makes sure the board's pawn structure is in the table
+     * @param board the board whose pawns to look up
+     * @return the index of the entry, for midgame, endgame and passedPawns
+     */
+    public int probe(Board board) {
+        long key = board.pawnHash();
+        int index = (int) key & mask;
+        probes++;
+        if (keys[index] == key && key != 0L) {
+            hits++;
+            return index;
+        }
+        evaluate(board, index);
+        keys[index] = key;
+        return index;
+    }
+
+    /**
+     * score returns the pawn structure score from white's side, blended by the game phase
+     * @param board the board to score
+     * @return the score in centipawns, positive when white's pawns are better
+     */
+    public int score(Board board) {
+        int index = probe(board);
+        return PieceSquareTables.taper(midgame[index], endgame[index], board.getPhase());
+    }
+
+    /**
+     * passedPawns returns the passed pawns of one side, as cached with the pawn structure
+     * @param board the board to look at
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return the bitboard of passed pawns
+     */
+    public long passedPawns(Board board, int side) {
+        return passed[side][probe(board)];
+    }
+
+    /**
+     * evaluate works out the pawn structure of a board into an entry
+     */
+    private void evaluate(Board board, int index) {
+        int mg = 0;
+        int eg = 0;
+        for (int side = Board.WHITE_SIDE; side <= Board.BLACK_SIDE; side++) {
+            long pawns = board.getPieceBitboard(side, Type.PAWN);
+            long enemyPawns = board.getPieceBitboard(side ^ 1, Type.PAWN);
+            int sign = side == Board.WHITE_SIDE ? 1 : -1;
+            long passedPawns = 0L;
+            for (long rest = pawns; rest != 0; rest &= rest - 1) {
+                int square = Long.numberOfTrailingZeros(rest);
+                int col = square % 8;
+                if ((pawns & ADJACENT_FILES[col]) == 0) {
+                    mg += sign * ISOLATED_MIDGAME;
+                    eg += sign * ISOLATED_ENDGAME;
+                }
+                if ((enemyPawns & PASSED_SPAN[side][square]) == 0) {
+                    passedPawns |= 1L << square;
+                    int advanced = side == Board.WHITE_SIDE ? 6 - square / 8 : square / 8 - 1;
+                    advanced = Math.max(0, Math.min(7, advanced));
+                    mg += sign * PASSED_MIDGAME[advanced];
+                    eg += sign * PASSED_ENDGAME[advanced];
+                }
+            }
+            for (int col = 0; col < 8; col++) {
+                int count = Long.bitCount(pawns & FILES[col]);
+                if (count > 1) {
+                    mg += sign * DOUBLED_MIDGAME * (count - 1);
+                    eg += sign * DOUBLED_ENDGAME * (count - 1);
+                }
+            }
+            passed[side][index] = passedPawns;
+        }
+        midgame[index] = mg;
+        endgame[index] = eg;
+    }
+
+    /**
+     * getProbes returns how many times the table was looked in
+     * @return the number of probes
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * getHits returns how many probes found the pawn structure already worked out
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * getHitRate returns the share of probes that were hits
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+
+    /**
+     * resetCounters sets the probe and hit counts back to zero
+     */
+    public void resetCounters() {
+        probes = 0;
+        hits = 0;
+    }
+}
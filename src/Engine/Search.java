@@ -0,0 +1,453 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import Game.MoveBuffer;
+import Game.Type;
+
+/**
+ * Search finds the best move for the side to move on a board with iterative deepening
+ * and principal variation search, an alpha-beta search that checks every move after the first
+ * with a null window and only searches it again with the full window when it turns out better.
+ * Each iteration starts from the best line of the one before, and moves are tried in the order
+ * MoveOrdering gives, which is what makes the null windows pay off.
+ *
+ * Results are kept in a TranspositionTable, which can be shared with other searches.
+ *
+ * The search is selective: null-move pruning, late move reductions, futility pruning, razoring
+ * and check extensions spend the nodes on the lines that matter, since the fairy pieces make the
+ * tree wider than in chess. Each of them can be switched off with SearchOptions.
+ *
+ * The search plays moves on the board it was given with makeMove and takes them back with
+ * unmakeMove, so the board is left as it was found, but it must not be touched by anything
+ * else while a search runs.
+ */
+public class Search {
+
+    public static final int MAX_PLY = 64;
+    public static final int MATE = 100000;
+    public static final int INFINITY = MATE + 1;
+
+    /**
+     * Futility margin per ply of depth left, and razoring margin by depth left
+     */
+    private static final int FUTILITY_MARGIN = 120;
+    private static final int[] RAZOR_MARGIN = {0, 300, 500};
+
+    /**
+     * Late move reductions by depth left and move number, growing with the logarithm of both
+     */
+    private static final int[][] REDUCTIONS = new int[MAX_PLY][MoveBuffer.DEFAULT_CAPACITY];
+
+    static {
+        for (int depth = 1; depth < MAX_PLY; depth++) {
+            for (int move = 1; move < MoveBuffer.DEFAULT_CAPACITY; move++) {
+                REDUCTIONS[depth][move] = (int) (0.75 + Math.log(depth) * Math.log(move) / 2.25);
+            }
+        }
+    }
+
+    private final Board board;
+    private final TranspositionTable table;
+    private final Evaluator evaluator = new Evaluator();
+    private final MoveOrdering ordering = new MoveOrdering();
+    private final StaticExchange exchange = new StaticExchange();
+    private SearchOptions options = new SearchOptions();
+    private final MoveBuffer[] moveLists = new MoveBuffer[MAX_PLY];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[] line = new int[MAX_PLY];
+
+    private int[] previousPv = new int[0];
+    private long nodes;
+    private volatile TimeManager time = TimeManager.infinite();
+    private long nodeLimit;
+    private boolean stopped;
+    private int completedDepth;
+    private int helper;
+
+    public Search(Board board) {
+        this(board, new TranspositionTable());
+    }
+
+    public Search(Board board, TranspositionTable table) {
+        this.board = board;
+        this.table = table;
+        for (int i = 0; i < MAX_PLY; i++) {
+            moveLists[i] = new MoveBuffer();
+        }
+    }
+
+    /**
+     * search looks for the best move with a fixed time budget
+     * @param maxDepth the deepest iteration to search, at most MAX_PLY - 1
+     * @param maxMillis the time budget in milliseconds, or 0 for no limit
+     * @return the best move, its score and the search statistics
+     */
+    public SearchResult search(int maxDepth, long maxMillis) {
+        return search(maxDepth, maxMillis > 0 ? TimeManager.fixedTime(maxMillis) : TimeManager.infinite());
+    }
+
+    /**
+     * search looks for the best move, going one ply deeper at a time until the depth is reached
+     * or the time manager stops it. The result always comes from the deepest iteration that finished;
+     * the first iteration is always finished so there is a move to play.
+     * @param maxDepth the deepest iteration to search, at most MAX_PLY - 1
+     * @param time the budget, whose clock started when it was made or last started
+     * @return the best move, its score and the search statistics
+     */
+    public SearchResult search(int maxDepth, TimeManager time) {
+        long start = System.currentTimeMillis();
+        this.time = time;
+        nodeLimit = time.getNodeLimit();
+        stopped = false;
+        nodes = 0;
+        previousPv = new int[0];
+        if (helper == 0) {
+            table.newSearch();
+        }
+        ordering.newSearch();
+        maxDepth = Math.max(1, Math.min(maxDepth, MAX_PLY - 1));
+
+        int bestMove = Move.NONE;
+        int bestScore = 0;
+        completedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            if (skipDepth(depth) && depth < maxDepth) {
+                continue;
+            }
+            int score = pvs(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            previousPv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, pvLength[0]);
+            bestMove = previousPv.length > 0 ? previousPv[0] : Move.NONE;
+            bestScore = score;
+            completedDepth = depth;
+            if (bestMove == Move.NONE || Math.abs(score) >= MATE - MAX_PLY || !time.canStartIteration()) {
+                break;
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes,
+                System.currentTimeMillis() - start, previousPv);
+    }
+
+    /**
+     * pvs is the recursive alpha-beta search
+     * @param depth the plies left to search
+     * @param ply the distance from the root
+     * @param alpha the score the side to move is already sure of
+     * @param beta the score the opponent is already sure of
+     * @return the score of the position for the side to move
+     */
+    private int pvs(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (countNode()) {
+            return 0;
+        }
+        if (ply > 0 && board.isRepetition()) {
+            return 0;
+        }
+        int side = board.getSideToMove();
+        boolean inCheck = board.inCheck(side);
+        if (inCheck && options.isCheckExtensions()) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiesce(ply, alpha, beta);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long key = board.hash();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean futile = false;
+        if (!pvNode && !inCheck && Math.abs(beta) < MATE - MAX_PLY) {
+            int staticScore = evaluator.evaluate(board);
+            if (options.isFutility() && depth <= 3 && staticScore - FUTILITY_MARGIN * depth >= beta) {
+                return staticScore;
+            }
+            if (options.isRazoring() && depth < RAZOR_MARGIN.length && staticScore + RAZOR_MARGIN[depth] <= alpha) {
+                int score = quiesce(ply, alpha, beta);
+                if (stopped) {
+                    return 0;
+                }
+                if (score <= alpha) {
+                    return score;
+                }
+            }
+            if (options.isNullMove() && depth >= 3 && staticScore >= beta
+                    && (ply == 0 || line[ply - 1] != Move.NONE) && hasPieces(side)) {
+                int reduction = depth >= 7 ? 3 : 2;
+                line[ply] = Move.NONE;
+                board.makeNullMove();
+                int score = -pvs(depth - 1 - reduction, ply + 1, -beta, -beta + 1);
+                board.unmakeNullMove();
+                if (stopped) {
+                    return 0;
+                }
+                if (score >= beta) {
+                    return score >= MATE - MAX_PLY ? beta : score;
+                }
+            }
+            futile = options.isFutility() && depth <= 2 && staticScore + FUTILITY_MARGIN * depth <= alpha;
+        }
+
+        MoveBuffer moves = moveLists[ply];
+        moves.clear();
+        board.generateLegalMoves(side, moves);
+        if (moves.size() == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (ply < previousPv.length && onPreviousPv(ply)) {
+            hashMove = previousPv[ply];
+        }
+        ordering.score(moves, ply, hashMove, side);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.pick(moves, ply, i);
+            line[ply] = move;
+            board.makeMove(move);
+            boolean quiet = !Move.isCapture(move) && !board.inCheck(side ^ 1);
+            if (futile && quiet && i > 0) {
+                board.unmakeMove();
+                continue;
+            }
+            int score;
+            if (i == 0) {
+                score = -pvs(depth - 1, ply + 1, -beta, -alpha);
+            }
+            else {
+                int reduction = 0;
+                if (options.isLateMoveReductions() && quiet && !inCheck && depth >= 3 && i >= 3
+                        && move != hashMove) {
+                    reduction = REDUCTIONS[depth][i] - (pvNode ? 1 : 0);
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+                score = -pvs(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha);
+                if (reduction > 0 && score > alpha) {
+                    score = -pvs(depth - 1, ply + 1, -alpha - 1, -alpha);
+                }
+                if (score > alpha && score < beta) {
+                    score = -pvs(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        ordering.cutoff(move, ply, depth, side);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, TranspositionTable.toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * quiesce searches captures only until the position is quiet, so the score at the end of the
+     * main search does not depend on a capture that is about to be answered.
+     * The side to move may stand pat with the static score instead of capturing, and captures that
+     * lose material by static exchange are not searched. In check every move is searched,
+     * since standing pat is not an option.
+     * @param ply the distance from the root
+     * @param alpha the score the side to move is already sure of
+     * @param beta the score the opponent is already sure of
+     * @return the score of the position for the side to move
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(board);
+        }
+
+        int side = board.getSideToMove();
+        boolean inCheck = board.inCheck(side);
+        MoveBuffer moves = moveLists[ply];
+        moves.clear();
+        int bestScore;
+        if (inCheck) {
+            board.generateLegalMoves(side, moves);
+            if (moves.size() == 0) {
+                return -MATE + ply;
+            }
+            bestScore = -INFINITY;
+        }
+        else {
+            bestScore = evaluator.evaluate(board);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+            board.generateLegalCaptures(side, moves);
+        }
+        ordering.score(moves, ply, Move.NONE, side);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.pick(moves, ply, i);
+            if (!inCheck && exchange.see(board, move) < 0) {
+                continue;
+            }
+            line[ply] = move;
+            board.makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * countNode counts a visited position and, every TimeManager.POLL_INTERVAL nodes or once the
+     * node limit is reached, asks the time manager whether to stop.
+     * The main search never cuts its first iteration short.
+     * @return true if the search has to stop
+     */
+    private boolean countNode() {
+        if (((++nodes & (TimeManager.POLL_INTERVAL - 1)) == 0 || nodes >= nodeLimit)
+                && (completedDepth > 0 || helper != 0) && time.shouldStop(nodes)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * hasPieces checks if a side has anything besides pawns and its king. Without other pieces,
+     * positions where having to move is a disadvantage (zugzwang) are common, and the null move
+     * would get them wrong.
+     */
+    private boolean hasPieces(int side) {
+        return (board.getColorBitboard(side) & ~board.getPieceBitboard(side, Type.PAWN)
+                & ~board.getPieceBitboard(side, Type.KING)) != 0;
+    }
+
+    /**
+     * updatePv makes a move followed by the best line below it the best line at this ply
+     */
+    private void updatePv(int ply, int move) {
+        pvTable[ply][0] = move;
+        int length = ply + 1 < MAX_PLY ? pvLength[ply + 1] : 0;
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, length);
+        pvLength[ply] = length + 1;
+    }
+
+    /**
+     * onPreviousPv checks if the moves leading to this ply are the start of the previous best line
+     */
+    private boolean onPreviousPv(int ply) {
+        for (int i = 0; i < ply; i++) {
+            if (line[i] != previousPv[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * stop asks a running search to finish as soon as possible; it can be called from any thread.
+     * The search still returns the result of the deepest iteration it finished.
+     */
+    public void stop() {
+        time.stop();
+    }
+
+    /**
+     * setHelper makes this search one of the helpers of a ParallelSearch.
+     * Helpers leave out some iterations, each helper different ones, so that the threads
+     * sharing a transposition table work on different depths at the same time.
+     * @param helper 0 for the main search, which searches every depth, or the helper's number
+     */
+    public void setHelper(int helper) {
+        this.helper = helper;
+    }
+
+    /**
+     * skipDepth decides if a helper leaves out an iteration.
+     * Helpers skip depths in runs that get longer with the helper number, each starting at its own phase.
+     */
+    private boolean skipDepth(int depth) {
+        if (helper == 0) {
+            return false;
+        }
+        int size = (helper + 1) / 2 + 1;
+        int phase = helper % size;
+        return ((depth + phase) / size) % 2 == 1;
+    }
+
+    /**
+     * setOptions chooses the selective parts of the search, for the searches started after it
+     * @param options the options to use
+     */
+    public void setOptions(SearchOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * getOptions returns the selective parts of the search that are in use
+     * @return the options
+     */
+    public SearchOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * getEvaluator returns the evaluator the search scores positions with
+     * @return the evaluator
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * getNodes returns how many positions the last search visited
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,85 @@
+package Engine;
+
+/**
+ * SearchOptions switches the selective parts of the Search on and off, so each can be measured
+ * on its own at a fixed depth and turned off again if it costs strength.
+ * <ul>
+ *     <li>null move: give the opponent a free move at reduced depth; if the position is still above
+ *     beta, the node is cut off without searching any move</li>
+ *     <li>late move reductions: quiet moves late in the ordering are searched shallower first,
+ *     and only searched again at full depth if they beat alpha</li>
+ *     <li>futility: near the leaves, return the static score if it is far above beta, and skip
+ *     quiet moves that cannot bring the static score up to alpha</li>
+ *     <li>razoring: near the leaves, drop into the quiescence search when the static score is far below alpha</li>
+ *     <li>check extensions: search a position one ply deeper when the side to move is in check</li>
+ * </ul>
+ * Every part is on by default.
+ */
+public class SearchOptions {
+
+    private boolean nullMove = true;
+    private boolean lateMoveReductions = true;
+    private boolean futility = true;
+    private boolean razoring = true;
+    private boolean checkExtensions = true;
+
+    /**
+     * none makes options with every selective part off, which is a plain alpha-beta search
+     * @return the options
+     */
+    public static SearchOptions none() {
+        SearchOptions options = new SearchOptions();
+        options.setNullMove(false);
+        options.setLateMoveReductions(false);
+        options.setFutility(false);
+        options.setRazoring(false);
+        options.setCheckExtensions(false);
+        return options;
+    }
+
+    public boolean isNullMove() {
+        return nullMove;
+    }
+
+    public void setNullMove(boolean nullMove) {
+        this.nullMove = nullMove;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    public boolean isFutility() {
+        return futility;
+    }
+
+    public void setFutility(boolean futility) {
+        this.futility = futility;
+    }
+
+    public boolean isRazoring() {
+        return razoring;
+    }
+
+    public void setRazoring(boolean razoring) {
+        this.razoring = razoring;
+    }
+
+    public boolean isCheckExtensions() {
+        return checkExtensions;
+    }
+
+    public void setCheckExtensions(boolean checkExtensions) {
+        this.checkExtensions = checkExtensions;
+    }
+
+    @Override
+    public String toString() {
+        return "nullMove=" + nullMove + " lateMoveReductions=" + lateMoveReductions
+                + " futility=" + futility + " razoring=" + razoring + " checkExtensions=" + checkExtensions;
+    }
+}
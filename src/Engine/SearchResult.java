@@ -0,0 +1,83 @@
+package Engine;
+
+import Game.Move;
+
+/**
+ * SearchResult is what a finished search reports: the best move found, its score
+ * and how much work it took.
+ */
+public class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long millis;
+    private final int[] principalVariation;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long millis, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * getBestMove returns the move to play
+     * @return the encoded move, or Move.NONE if the side to move has no legal move
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * getScore returns the score of the best move in centipawns for the side to move.
+     * Mates are scored as Search.MATE minus the number of plies to mate.
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * getDepth returns the last depth that was searched completely
+     * @return the depth in plies
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * getNodes returns how many positions were visited
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * getMillis returns how long the search took
+     * @return the time in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * getPrincipalVariation returns the line the search expects to be played, starting with the best move
+     * @return the encoded moves
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder pv = new StringBuilder();
+        for (int move : principalVariation) {
+            pv.append(' ').append(Move.toString(move));
+        }
+        return "depth " + depth + " score " + score + " nodes " + nodes + " time " + millis + " pv" + pv;
+    }
+}
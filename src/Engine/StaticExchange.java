@@ -0,0 +1,78 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import Game.Type;
+
+/**
+ * StaticExchange works out what a capture wins or loses once both sides have made every
+ * recapture on the target square that pays off, without playing any move.
+ * Each side recaptures with its least valuable attacker. The attackers are looked up again after
+ * every capture with the capturing pieces taken out of the occupancy, so a Rook, Bishop or Queen
+ * lined up behind another slider (an x-ray) joins in as soon as the piece in front has captured.
+ * Knights, Leapers, NightRiders, pawns and kings are found through their jump tables.
+ * Pins are not looked at.
+ *
+ * The swap list is kept in a preallocated array, so each search thread needs its own instance.
+ */
+public class StaticExchange {
+
+    private static final int MAX_CAPTURES = 32;
+
+    /**
+     * The piece types from least to most valuable, the order recaptures are made in
+     */
+    private static final Type[] LEAST_VALUABLE_FIRST = {
+            Type.PAWN, Type.LEAPER, Type.NIGHTRIDER, Type.KNIGHT, Type.BISHOP, Type.ROOK, Type.QUEEN, Type.KING
+    };
+
+    private final int[] gain = new int[MAX_CAPTURES];
+
+    /**
+     * see returns the material the side making a move comes out with after the exchange on the target square
+     * @param board the board the move is played on
+     * @param move the move, usually a capture
+     * @return the material won, negative if the move loses material
+     */
+    public int see(Board board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = Move.captured(move);
+        long occupancy = board.getOccupied() ^ (1L << from);
+        int side = Board.sideOfCode(Move.piece(move)) ^ 1;
+        int onSquare = MoveOrdering.value(Move.piece(move));
+
+        int depth = 0;
+        gain[0] = captured == Board.EMPTY ? 0 : MoveOrdering.value(captured);
+        while (depth < MAX_CAPTURES - 1) {
+            long attackers = board.attackersTo(to, side, occupancy) & occupancy;
+            if (attackers == 0) {
+                break;
+            }
+            Type attacker = null;
+            long attackerBit = 0L;
+            for (Type type : LEAST_VALUABLE_FIRST) {
+                long pieces = attackers & board.getTypeBitboard(type);
+                if (pieces != 0) {
+                    attacker = type;
+                    attackerBit = pieces & -pieces;
+                    break;
+                }
+            }
+            if (attacker == Type.KING
+                    && (board.attackersTo(to, side ^ 1, occupancy ^ attackerBit) & occupancy) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            occupancy ^= attackerBit;
+            onSquare = MoveOrdering.value(Board.pieceCode(side, attacker));
+            side ^= 1;
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+}
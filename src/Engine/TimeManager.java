@@ -0,0 +1,180 @@
+package Engine;
+
+/**
+ * TimeManager decides how long a search may run and tells it when to stop.
+ * A budget is either a fixed time per move, a game clock (time left, increment and moves to go),
+ * a node limit, or no limit at all. From a clock it works out two times: the optimum, after which
+ * no new iteration is started since it would most likely not finish, and the maximum, after which
+ * the running iteration is abandoned.
+ *
+ * Stopping is cooperative: the search calls shouldStop every POLL_INTERVAL nodes, and stop sets a
+ * volatile flag that the next poll sees, from any thread. The search then returns the result of
+ * its deepest finished iteration.
+ *
+ * While pondering, the search is thinking on the opponent's time, so only stop is obeyed;
+ * ponderHit then starts the clock and the budget applies from that moment.
+ */
+public class TimeManager {
+
+    public static final int POLL_INTERVAL = 1024;
+
+    /**
+     * Time kept back on every move for the time it takes to send the move
+     */
+    public static final long MOVE_OVERHEAD = 10;
+
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final long optimumMillis;
+    private final long maximumMillis;
+    private final long nodeLimit;
+
+    private volatile long start;
+    private volatile boolean stopped;
+    private volatile boolean pondering;
+
+    private TimeManager(long optimumMillis, long maximumMillis, long nodeLimit) {
+        this.optimumMillis = optimumMillis;
+        this.maximumMillis = maximumMillis;
+        this.nodeLimit = nodeLimit;
+        this.start = System.currentTimeMillis();
+    }
+
+    /**
+     * infinite makes a budget without limits; the search runs until its depth is reached or stop is called
+     * @return the time manager
+     */
+    public static TimeManager infinite() {
+        return new TimeManager(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * fixedTime makes a budget of a fixed time for this move
+     * @param millis the time for the move in milliseconds
+     * @return the time manager
+     */
+    public static TimeManager fixedTime(long millis) {
+        long budget = Math.max(1, millis - MOVE_OVERHEAD);
+        return new TimeManager(budget, budget, Long.MAX_VALUE);
+    }
+
+    /**
+     * clock makes a budget from a game clock. The time left is shared out over the moves to go,
+     * or over DEFAULT_MOVES_TO_GO moves if the number is not known, and most of the increment is added.
+     * A move may take up to three times its share, but never more than a quarter of the time left.
+     * @param remainingMillis the time left on the clock
+     * @param incrementMillis the time added after every move
+     * @param movesToGo the moves until the next time control, or 0 if the rest of the game must be played
+     * @return the time manager
+     */
+    public static TimeManager clock(long remainingMillis, long incrementMillis, int movesToGo) {
+        long available = Math.max(1, remainingMillis - MOVE_OVERHEAD);
+        int moves = movesToGo > 0 ? Math.min(movesToGo, DEFAULT_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+        long optimum = available / moves + incrementMillis * 3 / 4;
+        long maximum = Math.min(optimum * 3, movesToGo == 1 ? available : available / 4 + incrementMillis);
+        maximum = Math.max(1, Math.min(maximum, available));
+        optimum = Math.max(1, Math.min(optimum, maximum));
+        return new TimeManager(optimum, maximum, Long.MAX_VALUE);
+    }
+
+    /**
+     * nodes makes a budget of a number of nodes, which makes searches repeatable whatever the
+     * speed of the machine; the search checks the limit at every node
+     * @param nodeLimit the number of nodes each search thread may visit
+     * @return the time manager
+     */
+    public static TimeManager nodes(long nodeLimit) {
+        return new TimeManager(Long.MAX_VALUE, Long.MAX_VALUE, nodeLimit);
+    }
+
+    /**
+     * start restarts the clock and clears the stop flag. The clock already starts when the
+     * time manager is made, so this is only needed to reuse one, e.g. when a ponder search
+     * becomes a normal search.
+     */
+    public void start() {
+        start = System.currentTimeMillis();
+        stopped = false;
+    }
+
+    /**
+     * setPondering marks the search as thinking on the opponent's time, so the time limits
+     * do not apply until ponderHit
+     * @param pondering true while the opponent has not moved yet
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+
+    /**
+     * isPondering checks if the time limits are held off
+     * @return true while pondering
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * ponderHit is called when the opponent played the move that was pondered on:
+     * the clock starts and the search goes on as a normal search
+     */
+    public void ponderHit() {
+        start = System.currentTimeMillis();
+        pondering = false;
+    }
+
+    /**
+     * stop asks the search to finish as soon as it next polls; it can be called from any thread
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * isStopped checks if stop was called or a limit was reached
+     * @return true if the search has been told to stop
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * shouldStop is polled by the search; it stops the search once the maximum time or the node limit is reached
+     * @param nodes the nodes the polling search thread has visited
+     * @return true if the search has to stop
+     */
+    public boolean shouldStop(long nodes) {
+        if (!stopped && !pondering && (nodes >= nodeLimit || elapsed() >= maximumMillis)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * canStartIteration checks if there is time for another iteration
+     * @return false once the optimum time has passed or the search has been stopped, true while pondering
+     */
+    public boolean canStartIteration() {
+        return !stopped && (pondering || elapsed() < optimumMillis);
+    }
+
+    /**
+     * elapsed returns the time since the search started
+     * @return the time in milliseconds
+     */
+    public long elapsed() {
+        return System.currentTimeMillis() - start;
+    }
+
+    public long getOptimumMillis() {
+        return optimumMillis;
+    }
+
+    public long getMaximumMillis() {
+        return maximumMillis;
+    }
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+}
@@ -0,0 +1,323 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import Game.MoveBuffer;
+import Game.Type;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Tournament plays one engine setting against another to judge a change.
+ * Games run at the same time on a work-stealing ForkJoinPool, one per core by default, and every
+ * engine searches on a single thread, so the games do not compete for cores.
+ *
+ * Each opening is a few random moves from the chess or Special Game start and is played twice,
+ * with the engines swapping colors, so a lopsided opening favours neither. A move is searched to a
+ * fixed time or a fixed number of nodes. A game ends in checkmate, stalemate, a repeated position,
+ * fifty moves without a capture or pawn move, bare kings, or after MAX_PLIES.
+ *
+ * Every finished game is written to the results file at once, so a long run can be followed and
+ * nothing is lost if it is stopped. The result is the Elo difference of the first engine with its error margin.
+ */
+public class Tournament {
+
+    public static final int MAX_PLIES = 400;
+    private static final int FIFTY_MOVES = 100;
+
+    private final SearchOptions first;
+    private final SearchOptions second;
+
+    private int games = 100;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long moveMillis = 100;
+    private long moveNodes;
+    private int openingPlies = 6;
+    private boolean special;
+    private long seed = 1;
+    private int hashMegabytes = 4;
+    private File output;
+
+    private final Elo elo = new Elo();
+    private PrintWriter results;
+
+    private final ThreadLocal<TranspositionTable[]> tables = new ThreadLocal<TranspositionTable[]>() {
+        @Override
+        protected TranspositionTable[] initialValue() {
+            return new TranspositionTable[]{new TranspositionTable(hashMegabytes), new TranspositionTable(hashMegabytes)};
+        }
+    };
+
+    /**
+     * Constructor Tournament sets up a match between two engine settings
+     * @param first the settings being judged
+     * @param second the settings it plays against
+     */
+    public Tournament(SearchOptions first, SearchOptions second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * run plays all games and waits for them
+     * @return the score of the first engine
+     * @throws IOException if the results file cannot be written
+     */
+    public Elo run() throws IOException {
+        if (output != null) {
+            results = new PrintWriter(new BufferedWriter(new FileWriter(output, true)));
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            Random random = new Random(seed);
+            List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+            for (int game = 0; game < games; game += 2) {
+                final String opening = randomOpening(random);
+                for (int color = 0; color < 2 && game + color < games; color++) {
+                    final int index = game + color;
+                    final boolean firstIsWhite = color == 0;
+                    tasks.add(pool.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            play(index, opening, firstIsWhite);
+                        }
+                    }));
+                }
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        finally {
+            pool.shutdown();
+            if (results != null) {
+                results.close();
+            }
+        }
+        return elo;
+    }
+
+    /**
+     * randomOpening plays random legal moves from the start position
+     * @param random where the moves come from
+     * @return the position after the moves, as written by Board.getPosition
+     */
+    private String randomOpening(Random random) {
+        MoveBuffer moves = new MoveBuffer();
+        while (true) {
+            Board board = new Board();
+            if (special) {
+                board.setSpecialPieces();
+            }
+            else {
+                board.setChessPieces();
+            }
+            int ply = 0;
+            for (; ply < openingPlies; ply++) {
+                moves.clear();
+                board.generateLegalMoves(board.getSideToMove(), moves);
+                if (moves.size() == 0) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            moves.clear();
+            board.generateLegalMoves(board.getSideToMove(), moves);
+            if (ply == openingPlies && moves.size() > 0) {
+                return board.getPosition();
+            }
+        }
+    }
+
+    /**
+     * play plays one game and records it
+     * @param index the number of the game
+     * @param opening the position to start from
+     * @param firstIsWhite true if the first engine plays white
+     */
+    private void play(int index, String opening, boolean firstIsWhite) {
+        Board board = new Board();
+        board.setPosition(opening);
+        TranspositionTable[] engineTables = tables.get();
+        Search[] engines = new Search[2];
+        for (int i = 0; i < 2; i++) {
+            engineTables[i].clear();
+            engines[i] = new Search(board, engineTables[i]);
+            engines[i].setOptions(i == 0 ? first : second);
+        }
+        int whiteEngine = firstIsWhite ? 0 : 1;
+
+        StringBuilder line = new StringBuilder();
+        MoveBuffer moves = new MoveBuffer();
+        int quietPlies = 0;
+        double whiteScore = 0.5;
+        String reason = "move limit";
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            int side = board.getSideToMove();
+            moves.clear();
+            board.generateLegalMoves(side, moves);
+            if (moves.size() == 0) {
+                if (board.inCheck(side)) {
+                    whiteScore = side == Board.WHITE_SIDE ? 0 : 1;
+                    reason = "checkmate";
+                }
+                else {
+                    reason = "stalemate";
+                }
+                break;
+            }
+            if (board.isRepetition()) {
+                reason = "repetition";
+                break;
+            }
+            if (quietPlies >= FIFTY_MOVES) {
+                reason = "fifty moves";
+                break;
+            }
+            if (Long.bitCount(board.getOccupied()) == 2) {
+                reason = "bare kings";
+                break;
+            }
+            TimeManager time = moveNodes > 0 ? TimeManager.nodes(moveNodes) : TimeManager.fixedTime(moveMillis);
+            Search engine = engines[side == Board.WHITE_SIDE ? whiteEngine : 1 - whiteEngine];
+            int move = engine.search(Search.MAX_PLY - 1, time).getBestMove();
+            if (move == Move.NONE) {
+                move = moves.get(0);
+            }
+            boolean quiet = !Move.isCapture(move) && Board.typeOf(Move.piece(move)) != Type.PAWN;
+            quietPlies = quiet ? quietPlies + 1 : 0;
+            board.makeMove(move);
+            line.append(' ').append(Move.toString(move));
+        }
+
+        double firstScore = firstIsWhite ? whiteScore : 1 - whiteScore;
+        elo.add(firstScore);
+        String result = whiteScore == 1 ? "1-0" : whiteScore == 0 ? "0-1" : "1/2-1/2";
+        record(index + " " + (firstIsWhite ? "first second " : "second first ") + result + " \"" + reason
+                + "\" \"" + opening + "\"" + line);
+    }
+
+    /**
+     * record writes a finished game to the results file straight away
+     */
+    private synchronized void record(String game) {
+        if (results != null) {
+            results.println(game);
+            results.flush();
+        }
+    }
+
+    public void setGames(int games) {
+        this.games = games;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * setMoveTime gives each move a fixed time
+     * @param millis the time per move in milliseconds
+     */
+    public void setMoveTime(long millis) {
+        this.moveMillis = millis;
+        this.moveNodes = 0;
+    }
+
+    /**
+     * setMoveNodes gives each move a fixed number of nodes, which makes games repeatable
+     * @param nodes the nodes per move
+     */
+    public void setMoveNodes(long nodes) {
+        this.moveNodes = nodes;
+    }
+
+    public void setOpeningPlies(int openingPlies) {
+        this.openingPlies = openingPlies;
+    }
+
+    /**
+     * setSpecial starts the openings from the Special Game setup, with Leapers and NightRiders
+     * @param special true for the Special Game
+     */
+    public void setSpecial(boolean special) {
+        this.special = special;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setHashMegabytes(int hashMegabytes) {
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    /**
+     * setOutput chooses the file every game is appended to, one line per game:
+     * number, colors of the first engine, result, reason, opening and moves
+     * @param output the file, or null to write nothing
+     */
+    public void setOutput(File output) {
+        this.output = output;
+    }
+
+    /**
+     * main plays the default settings against settings with parts of the selective search turned off.
+     * Usage: Tournament games [movetime ms | nodes n] [special] [output file] [-nullMove] [-lateMoveReductions]
+     * [-futility] [-razoring] [-checkExtensions]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: Tournament games [movetime ms | nodes n] [special] [output file]"
+                    + " [-nullMove] [-lateMoveReductions] [-futility] [-razoring] [-checkExtensions]");
+            return;
+        }
+        SearchOptions second = new SearchOptions();
+        Tournament tournament = new Tournament(new SearchOptions(), second);
+        tournament.setGames(Integer.parseInt(args[0]));
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("movetime")) {
+                tournament.setMoveTime(Long.parseLong(args[++i]));
+            }
+            else if (arg.equals("nodes")) {
+                tournament.setMoveNodes(Long.parseLong(args[++i]));
+            }
+            else if (arg.equals("special")) {
+                tournament.setSpecial(true);
+            }
+            else if (arg.equals("output")) {
+                tournament.setOutput(new File(args[++i]));
+            }
+            else if (arg.equals("-nullMove")) {
+                second.setNullMove(false);
+            }
+            else if (arg.equals("-lateMoveReductions")) {
+                second.setLateMoveReductions(false);
+            }
+            else if (arg.equals("-futility")) {
+                second.setFutility(false);
+            }
+            else if (arg.equals("-razoring")) {
+                second.setRazoring(false);
+            }
+            else if (arg.equals("-checkExtensions")) {
+                second.setCheckExtensions(false);
+            }
+        }
+        long start = System.currentTimeMillis();
+        Elo elo = tournament.run();
+        System.out.println("first: " + new SearchOptions());
+        System.out.println("second: " + second);
+        System.out.println(elo + " in " + (System.currentTimeMillis() - start) / 1000 + " s");
+    }
+}
@@ -0,0 +1,225 @@
+package Engine;
+
+import Game.Move;
+
+import java.util.Arrays;
+
+/**
+ * TranspositionTable remembers what the search found out about positions it has seen,
+ * keyed by Board.hash(). Entries live in one packed long[] with two longs each: the key XORed
+ * with the data, then the data. Every field of an entry is packed into the data word:
+ * bits 0-21 best move, 22-39 score, 40-46 depth, 47-48 bound and 49-54 age.
+ *
+ * The table takes no locks, so any number of searches can share it. Two threads writing the same
+ * slot at once can leave a key word from one entry next to a data word from the other; since the
+ * key is stored XORed with its data, such a torn entry no longer matches any key and is read as a miss.
+ *
+ * Slots are grouped in buckets of BUCKET_SIZE. A new entry replaces the entry with the same key,
+ * or else the one that is least worth keeping: entries from older searches go first, then shallow ones.
+ */
+public class TranspositionTable {
+
+    public static final int DEFAULT_MB = 16;
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_LONGS = 2;
+
+    private static final int MOVE_BITS = 22;
+    private static final int SCORE_SHIFT = 22;
+    private static final int SCORE_BITS = 18;
+    private static final int DEPTH_SHIFT = 40;
+    private static final int DEPTH_BITS = 7;
+    private static final int BOUND_SHIFT = 47;
+    private static final int AGE_SHIFT = 49;
+    private static final int AGE_BITS = 6;
+
+    private long[] table;
+    private int age;
+
+    /**
+     * Constructor TranspositionTable makes a table of about the given size
+     * @param megabytes the size of the table, rounded down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_MB);
+    }
+
+    /**
+     * resize throws away every entry and makes the table about the given size
+     * @param megabytes the size of the table, rounded down to a power of two
+     */
+    public void resize(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / (BUCKET_SIZE * ENTRY_LONGS * 8));
+        buckets = Math.min(buckets, 1L << 26);
+        table = new long[(int) buckets * BUCKET_SIZE * ENTRY_LONGS];
+        age = 0;
+    }
+
+    /**
+     * clear throws away every entry
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * newSearch marks the entries stored so far as old, so they are the first to be replaced
+     */
+    public void newSearch() {
+        age = (age + 1) & ((1 << AGE_BITS) - 1);
+    }
+
+    /**
+     * probe looks up a position
+     * @param key the position's hash
+     * @return the data word of the entry, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        long[] table = this.table;
+        int index = bucketIndex(key, table);
+        for (int i = 0; i < BUCKET_SIZE; i++, index += ENTRY_LONGS) {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * store saves what the search found out about a position
+     * @param key the position's hash
+     * @param move the best move found, or Move.NONE
+     * @param score the score, already adjusted with toTable
+     * @param depth the depth that was searched
+     * @param bound EXACT, LOWER if the score is at least this, or UPPER if it is at most this
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        long[] table = this.table;
+        int index = bucketIndex(key, table);
+        int replace = index;
+        int worst = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_SIZE; i++, index += ENTRY_LONGS) {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == key || data == 0) {
+                if (move == Move.NONE && data != 0) {
+                    move = move(data);
+                }
+                replace = index;
+                break;
+            }
+            int value = depth(data) - 8 * ((age - age(data)) & ((1 << AGE_BITS) - 1));
+            if (value < worst) {
+                worst = value;
+                replace = index;
+            }
+        }
+        long data = (move & ((1L << MOVE_BITS) - 1))
+                | ((score & ((1L << SCORE_BITS) - 1)) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, (1 << DEPTH_BITS) - 1)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT);
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    /**
+     * hashFull estimates how full the table is from its first thousand slots
+     * @return the share of slots used by the current search, in permill
+     */
+    public int hashFull() {
+        int used = 0;
+        int slots = Math.min(1000, table.length / ENTRY_LONGS);
+        for (int i = 0; i < slots; i++) {
+            long data = table[i * ENTRY_LONGS + 1];
+            if (data != 0 && age(data) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / slots;
+    }
+
+    /**
+     * move returns the best move of an entry
+     */
+    public static int move(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    /**
+     * score returns the score of an entry, to be adjusted with fromTable
+     */
+    public static int score(long data) {
+        return (int) (data << (64 - SCORE_SHIFT - SCORE_BITS) >> (64 - SCORE_BITS));
+    }
+
+    /**
+     * depth returns the depth an entry was searched to
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & ((1 << DEPTH_BITS) - 1);
+    }
+
+    /**
+     * bound returns EXACT, LOWER or UPPER
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & ((1 << AGE_BITS) - 1);
+    }
+
+    /**
+     * toTable turns a mate score counted from the root into one counted from the stored position,
+     * so it stays right when the position is reached at another ply
+     * @param score the score from the search
+     * @param ply the distance of the position from the root
+     * @return the score to store
+     */
+    public static int toTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * fromTable undoes toTable
+     * @param score the stored score
+     * @param ply the distance of the position from the root
+     * @return the score for the search
+     */
+    public static int fromTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * bucketIndex finds the first slot of a key's bucket; the mask comes from the array that is read,
+     * so a search running while the table is resized still stays inside it
+     */
+    private static int bucketIndex(long key, long[] table) {
+        int bucketMask = table.length / (BUCKET_SIZE * ENTRY_LONGS) - 1;
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE * ENTRY_LONGS;
+    }
+}
@@ -0,0 +1,485 @@
+package Engine;
+
+import Game.Board;
+import Game.Move;
+import Game.MoveBuffer;
+import Game.Perft;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+/**
+ * Uci runs the engine without the Gui, speaking the UCI protocol on standard input and output,
+ * so it can be driven by tournament managers and analysis scripts on machines without a display.
+ * Nothing here touches Swing or AWT.
+ *
+ * The protocol is extended for the Special Game. Positions are written as read by Board.setPosition,
+ * with L for a Leaper and X for a NightRider ("position fen rnbqkbnr/lppppppx/8/8/8/8/XPPPPPPL/RNBQKBNR w");
+ * any further FEN fields are ignored, since there is no castling or en passant. The UCI_Variant option
+ * chooses what "position startpos" sets up, "chess" or "special".
+ *
+ * Searches run on a thread of their own, so stop, ponderhit and isready are answered while one runs.
+ * Any other command waits for the search to finish first, so a script can send "go depth 10" and
+ * the next position straight away.
+ * Besides the standard commands there are "d", which prints the position, and "go perft depth".
+ */
+public class Uci {
+
+    public static final String NAME = "Chess";
+
+    private final PrintStream out;
+    private final Board board = new Board();
+    private final MoveBuffer moves = new MoveBuffer();
+    private final SearchOptions options = new SearchOptions();
+    private final Object lock = new Object();
+
+    private TranspositionTable table = new TranspositionTable();
+    private int threads = 1;
+    private boolean special;
+
+    private Thread searchThread;
+    private volatile TimeManager time;
+    private boolean holdBestMove;
+    private boolean infinite;
+
+    public Uci(PrintStream out) {
+        this.out = out;
+        board.setPosition(Board.START_POSITION);
+    }
+
+    /**
+     * run reads commands until quit or the end of the input
+     * @param in the commands, one per line
+     * @throws IOException if the input cannot be read
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!execute(line)) {
+                return;
+            }
+        }
+        finishSearch();
+    }
+
+    /**
+     * execute carries out one command; unknown commands are answered with an info string
+     * @param line the command line
+     * @return false if the command was quit
+     */
+    public boolean execute(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "":
+                break;
+            case "uci":
+                out.println("id name " + NAME);
+                out.println("id author ilei2");
+                out.println("option name Hash type spin default " + TranspositionTable.DEFAULT_MB + " min 1 max 4096");
+                out.println("option name Threads type spin default 1 min 1 max 256");
+                out.println("option name Ponder type check default false");
+                out.println("option name UCI_Variant type combo default chess var chess var special");
+                out.println("option name NullMove type check default true");
+                out.println("option name LateMoveReductions type check default true");
+                out.println("option name Futility type check default true");
+                out.println("option name Razoring type check default true");
+                out.println("option name CheckExtensions type check default true");
+                out.println("uciok");
+                break;
+            case "isready":
+                out.println("readyok");
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                finishSearch();
+                table.clear();
+                break;
+            case "position":
+                position(tokens);
+                break;
+            case "go":
+                go(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "d":
+                finishSearch();
+                out.println("position " + board.getPosition());
+                out.println("key " + Long.toHexString(board.hash()));
+                break;
+            case "quit":
+                stopSearch();
+                return false;
+            default:
+                out.println("info string unknown command " + tokens[0]);
+        }
+        return true;
+    }
+
+    /**
+     * setOption handles "setoption name id [value x]"
+     */
+    private void setOption(String[] tokens) {
+        StringBuilder name = new StringBuilder();
+        StringBuilder value = new StringBuilder();
+        StringBuilder current = null;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("name")) {
+                current = name;
+            }
+            else if (tokens[i].equals("value")) {
+                current = value;
+            }
+            else if (current != null) {
+                current.append(current.length() > 0 ? " " : "").append(tokens[i]);
+            }
+        }
+        finishSearch();
+        String text = value.toString();
+        try {
+            switch (name.toString().toLowerCase()) {
+                case "hash":
+                    table.resize(Integer.parseInt(text));
+                    break;
+                case "threads":
+                    threads = Math.max(1, Integer.parseInt(text));
+                    break;
+                case "ponder":
+                    break;
+                case "uci_variant":
+                    special = text.equalsIgnoreCase("special");
+                    break;
+                case "nullmove":
+                    options.setNullMove(Boolean.parseBoolean(text));
+                    break;
+                case "latemovereductions":
+                    options.setLateMoveReductions(Boolean.parseBoolean(text));
+                    break;
+                case "futility":
+                    options.setFutility(Boolean.parseBoolean(text));
+                    break;
+                case "razoring":
+                    options.setRazoring(Boolean.parseBoolean(text));
+                    break;
+                case "checkextensions":
+                    options.setCheckExtensions(Boolean.parseBoolean(text));
+                    break;
+                default:
+                    out.println("info string unknown option " + name);
+            }
+        }
+        catch (NumberFormatException e) {
+            out.println("info string bad value " + text + " for option " + name);
+        }
+    }
+
+    /**
+     * position handles "position [startpos | fen placement side ...] [moves m1 m2 ...]".
+     * If the position cannot be read the board goes back to the position it had; moves stop at the first illegal one.
+     */
+    private void position(String[] tokens) {
+        finishSearch();
+        if (tokens.length < 2) {
+            return;
+        }
+        int index;
+        String position;
+        if (tokens[1].equals("startpos")) {
+            position = special ? Board.SPECIAL_START_POSITION : Board.START_POSITION;
+            index = 2;
+        }
+        else if (tokens[1].equals("fen") && tokens.length > 2) {
+            String side = tokens.length > 3 && !tokens[3].equals("moves") ? tokens[3] : "w";
+            position = tokens[2] + " " + side;
+            index = 3;
+            while (index < tokens.length && !tokens[index].equals("moves")) {
+                index++;
+            }
+        }
+        else {
+            out.println("info string bad position command");
+            return;
+        }
+        String previous = board.getPosition();
+        try {
+            board.setPosition(position);
+        }
+        catch (IllegalArgumentException e) {
+            out.println("info string " + e.getMessage());
+            board.setPosition(previous);
+            return;
+        }
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            for (int i = index + 1; i < tokens.length; i++) {
+                int move = parseMove(tokens[i]);
+                if (move == Move.NONE) {
+                    out.println("info string illegal move " + tokens[i]);
+                    return;
+                }
+                board.makeMove(move);
+            }
+        }
+    }
+
+    /**
+     * parseMove finds the legal move written in coordinate notation, e.g. "g1f3"
+     * @param text the move
+     * @return the move, or Move.NONE if no legal move is written that way
+     */
+    private int parseMove(String text) {
+        moves.clear();
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.toString(moves.get(i)).equals(text.toLowerCase())) {
+                return moves.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * go handles "go" with depth, nodes, movetime, wtime, btime, winc, binc, movestogo, infinite,
+     * ponder and perft. The search is started in the background and prints bestmove when done;
+     * after infinite or ponder it waits for stop or ponderhit first.
+     */
+    private void go(String[] tokens) {
+        finishSearch();
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long[] clock = new long[2];
+        long[] increment = new long[2];
+        int movesToGo = 0;
+        boolean ponder = false;
+        boolean forever = false;
+        int perft = 0;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                String key = tokens[i];
+                if (key.equals("infinite")) {
+                    forever = true;
+                }
+                else if (key.equals("ponder")) {
+                    ponder = true;
+                }
+                else if (i + 1 < tokens.length) {
+                    String value = tokens[++i];
+                    switch (key) {
+                        case "depth":
+                            depth = Integer.parseInt(value);
+                            break;
+                        case "nodes":
+                            nodes = Long.parseLong(value);
+                            break;
+                        case "movetime":
+                            moveTime = Long.parseLong(value);
+                            break;
+                        case "wtime":
+                            clock[Board.WHITE_SIDE] = Long.parseLong(value);
+                            break;
+                        case "btime":
+                            clock[Board.BLACK_SIDE] = Long.parseLong(value);
+                            break;
+                        case "winc":
+                            increment[Board.WHITE_SIDE] = Long.parseLong(value);
+                            break;
+                        case "binc":
+                            increment[Board.BLACK_SIDE] = Long.parseLong(value);
+                            break;
+                        case "movestogo":
+                            movesToGo = Integer.parseInt(value);
+                            break;
+                        case "perft":
+                            perft = Integer.parseInt(value);
+                            break;
+                        default:
+                            i--;
+                    }
+                }
+            }
+        }
+        catch (NumberFormatException e) {
+            out.println("info string bad go command");
+            return;
+        }
+        if (perft > 0) {
+            long total = new Perft(board).divide(perft, out);
+            out.println();
+            out.println("Nodes searched: " + total);
+            return;
+        }
+
+        int side = board.getSideToMove();
+        final TimeManager budget;
+        if (nodes > 0) {
+            budget = TimeManager.nodes(nodes);
+        }
+        else if (moveTime > 0) {
+            budget = TimeManager.fixedTime(moveTime);
+        }
+        else if (clock[side] > 0 && !forever) {
+            budget = TimeManager.clock(clock[side], increment[side], movesToGo);
+        }
+        else {
+            budget = TimeManager.infinite();
+        }
+        budget.setPondering(ponder);
+        final int maxDepth = depth > 0 ? depth : Search.MAX_PLY - 1;
+        final ParallelSearch search = new ParallelSearch(board, threads, table);
+        search.setOptions(options);
+        synchronized (lock) {
+            holdBestMove = forever || ponder;
+            infinite = forever;
+        }
+        time = budget;
+        searchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SearchResult result = search.search(maxDepth, budget);
+                synchronized (lock) {
+                    while (holdBestMove) {
+                        try {
+                            lock.wait();
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                }
+                report(result);
+            }
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    /**
+     * report prints the info line and bestmove of a finished search, with the expected reply to ponder on
+     */
+    private void report(SearchResult result) {
+        StringBuilder info = new StringBuilder("info depth ").append(result.getDepth());
+        info.append(" score ").append(score(result.getScore()));
+        info.append(" nodes ").append(result.getNodes());
+        info.append(" time ").append(result.getMillis());
+        info.append(" nps ").append(result.getNodes() * 1000 / Math.max(1, result.getMillis()));
+        int[] pv = result.getPrincipalVariation();
+        if (pv.length > 0) {
+            info.append(" pv");
+            for (int move : pv) {
+                info.append(' ').append(Move.toString(move));
+            }
+        }
+        out.println(info);
+        if (result.getBestMove() == Move.NONE) {
+            out.println("bestmove 0000");
+            return;
+        }
+        int reply = expectedReply(result);
+        out.println("bestmove " + Move.toString(result.getBestMove())
+                + (reply != Move.NONE ? " ponder " + Move.toString(reply) : ""));
+    }
+
+    /**
+     * expectedReply returns the opponent's move the engine expects after its own best move,
+     * which is the move it asks the GUI to ponder on
+     * @param result the result of the engine's search
+     * @return the second move of the best line, or Move.NONE if the line is shorter
+     */
+    public static int expectedReply(SearchResult result) {
+        int[] pv = result.getPrincipalVariation();
+        return pv.length > 1 ? pv[1] : Move.NONE;
+    }
+
+    /**
+     * score writes a search score as "cp x", or as "mate n" with n in moves, negative when getting mated
+     * @param score the score from the side to move
+     * @return the score as UCI writes it
+     */
+    public static String score(int score) {
+        if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+            int moves = (Search.MATE - Math.abs(score) + 1) / 2;
+            return "mate " + (score > 0 ? moves : -moves);
+        }
+        return "cp " + score;
+    }
+
+    /**
+     * ponderHit turns the ponder search into a normal search: its budget starts now,
+     * and bestmove is printed when it runs out
+     */
+    private void ponderHit() {
+        TimeManager budget = time;
+        if (budget != null) {
+            budget.ponderHit();
+        }
+        synchronized (lock) {
+            if (!infinite) {
+                holdBestMove = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * finishSearch lets a running search finish before the board or the options are changed.
+     * A search started with go infinite or go ponder would never finish on its own, so it is stopped.
+     */
+    private void finishSearch() {
+        boolean held;
+        synchronized (lock) {
+            held = holdBestMove;
+        }
+        if (held) {
+            stopSearch();
+        }
+        else {
+            waitForSearch();
+        }
+    }
+
+    /**
+     * stopSearch stops a running search and waits until it has printed its bestmove
+     */
+    private void stopSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        time.stop();
+        synchronized (lock) {
+            holdBestMove = false;
+            lock.notifyAll();
+        }
+        waitForSearch();
+    }
+
+    /**
+     * waitForSearch waits until the running search has printed its bestmove, without stopping it.
+     * A search started with go infinite or go ponder only finishes after stop or ponderhit.
+     */
+    public void waitForSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        try {
+            searchThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        searchThread = null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        new Uci(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+}
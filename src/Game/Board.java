@@ -4,7 +4,7 @@ import Pieces.*;
 import Player.Player;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import Gui.*;
@@ -13,6 +13,10 @@ import Gui.*;
 /**
  * Board consists of a tile board. When there is a new game,
  * pieces can be set on the board.
+ * The position itself is kept as bitboards: one long per color and one per piece Type,
+ * plus a 64 byte mailbox of piece codes. Squares are numbered row * 8 + column,
+ * so square 0 is the top left tile (black's rook) and square 63 the bottom right tile.
+ * The Tile objects are only a view of that state.
  */
 
 public class Board {
@@ -36,6 +40,15 @@ public class Board {
     private static final int SIZE = 8;
     public static final String black = "BLACK";
     public static final String white = "WHITE";
+    public static final int WHITE_SIDE = 0;
+    public static final int BLACK_SIDE = 1;
+    public static final int SQUARES = SIZE * SIZE;
+    public static final int EMPTY = 0;
+
+    private static final Type[] TYPES = Type.values();
+    private static final String PIECE_LETTERS = "PNBRQKLX";
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+    public static final String SPECIAL_START_POSITION = "rnbqkbnr/lppppppx/8/8/8/8/XPPPPPPL/RNBQKBNR w";
 
     public int blackCount = 18;
     public int whiteCount = 18;
@@ -48,6 +61,293 @@ public class Board {
 
     public Tile[][] board = new Tile[SIZE][SIZE];
 
+    private final long[] colorBitboards = new long[2];
+    private final long[] typeBitboards = new long[TYPES.length];
+    private final byte[] mailbox = new byte[SQUARES];
+    private final Piece[] pieceObjects = new Piece[SQUARES];
+    private long occupied;
+    private long hash;
+    private long pawnHash;
+    private int sideToMove = WHITE_SIDE;
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+
+    private final long[] attacksFrom = new long[SQUARES];
+    private final byte[][] attackCounts = new byte[2][SQUARES];
+    private final long[] attackMaps = new long[2];
+
+    private long checkMask;
+    private boolean doubleCheck;
+    private long pinned;
+    private final long[] pinRays = new long[SQUARES];
+
+    private static final int UNDO_CAPACITY = 512;
+    private int[] undoMoves = new int[UNDO_CAPACITY];
+    private Piece[] undoCaptured = new Piece[UNDO_CAPACITY];
+    private boolean[] undoFirstMove = new boolean[UNDO_CAPACITY];
+    private long[] undoHashes = new long[UNDO_CAPACITY];
+    private int ply = 0;
+
+    /**
+     * square converts a row and column into a square index
+     * @param row the row of the square
+     * @param col the column of the square
+     * @return the square index, row * 8 + col
+     */
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    /**
+     * sideOf converts a color string into a side index
+     * @param color "WHITE" or "BLACK"
+     * @return WHITE_SIDE or BLACK_SIDE
+     */
+    public static int sideOf(String color) {
+        return black.equals(color) ? BLACK_SIDE : WHITE_SIDE;
+    }
+
+    /**
+     * colorOf converts a side index into a color string
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return "WHITE" or "BLACK"
+     */
+    public static String colorOf(int side) {
+        return side == BLACK_SIDE ? black : white;
+    }
+
+    /**
+     * pieceCode packs a side and a type into the code stored in the mailbox
+     * @param side the side of the piece
+     * @param type the type of the piece
+     * @return a code between 1 and 16, EMPTY is never returned
+     */
+    public static int pieceCode(int side, Type type) {
+        return 1 + (side << 3) + type.ordinal();
+    }
+
+    /**
+     * typeOf unpacks the type from a piece code
+     * @param code a non empty piece code
+     * @return the type of the piece
+     */
+    public static Type typeOf(int code) {
+        return TYPES[(code - 1) & 7];
+    }
+
+    /**
+     * sideOfCode unpacks the side from a piece code
+     * @param code a non empty piece code
+     * @return WHITE_SIDE or BLACK_SIDE
+     */
+    public static int sideOfCode(int code) {
+        return (code - 1) >> 3;
+    }
+
+    /**
+     * getOccupied returns a bitboard of every occupied square
+     * @return the occupancy bitboard
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * getColorBitboard returns the squares occupied by one side
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return the bitboard of that side's pieces
+     */
+    public long getColorBitboard(int side) {
+        return colorBitboards[side];
+    }
+
+    /**
+     * getTypeBitboard returns the squares occupied by a piece type of either color
+     * @param type the piece type
+     * @return the bitboard of that type
+     */
+    public long getTypeBitboard(Type type) {
+        return typeBitboards[type.ordinal()];
+    }
+
+    /**
+     * getPieceBitboard returns the squares occupied by one side's pieces of a type
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @param type the piece type
+     * @return the bitboard of those pieces
+     */
+    public long getPieceBitboard(int side, Type type) {
+        return colorBitboards[side] & typeBitboards[type.ordinal()];
+    }
+
+    /**
+     * getPieceCode returns the mailbox code of a square
+     * @param square the square index
+     * @return the piece code, or EMPTY
+     */
+    public int getPieceCode(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * getPieceAt returns the piece object standing on a square
+     * @param square the square index
+     * @return the piece, or null if the square is empty
+     */
+    public Piece getPieceAt(int square) {
+        return pieceObjects[square];
+    }
+
+    /**
+     * isOccupied checks if a square holds a piece
+     * @param square the square index
+     * @return true if occupied, false otherwise
+     */
+    public boolean isOccupied(int square) {
+        return mailbox[square] != EMPTY;
+    }
+
+    /**
+     * placePiece puts a piece on a square, replacing anything already there
+     * @param square the square index
+     * @param piece the piece to place
+     */
+    void placePiece(int square, Piece piece) {
+        if (mailbox[square] != EMPTY) {
+            removeFromCore(square);
+        }
+        addToCore(square, pieceCode(piece.getSide(), piece.getType()), piece);
+    }
+
+    /**
+     * clearSquare removes whatever piece is on a square
+     * @param square the square index
+     */
+    void clearSquare(int square) {
+        if (mailbox[square] != EMPTY) {
+            removeFromCore(square);
+        }
+    }
+
+    /**
+     * addToCore writes a piece into the bitboards, the mailbox and the piece view of an empty square,
+     * and updates the attack maps
+     */
+    private void addToCore(int square, int code, Piece piece) {
+        long bit = 1L << square;
+        int side = sideOfCode(code);
+        Type type = typeOf(code);
+        mailbox[square] = (byte) code;
+        pieceObjects[square] = piece;
+        colorBitboards[side] |= bit;
+        typeBitboards[type.ordinal()] |= bit;
+        occupied |= bit;
+        hash ^= Zobrist.PIECE_SQUARE[code][square];
+        if (type == Type.PAWN) {
+            pawnHash ^= Zobrist.PIECE_SQUARE[code][square];
+        }
+        midgameScore += PieceSquareTables.MIDGAME[code][square];
+        endgameScore += PieceSquareTables.ENDGAME[code][square];
+        phase += PieceSquareTables.PHASE[type.ordinal()];
+        piece.setLocation(square / SIZE, square % SIZE);
+        setAttacks(square, side, attacksFrom(type, side, square, occupied));
+        refreshSlidersThrough(square);
+    }
+
+    /**
+     * removeFromCore clears an occupied square from the bitboards, the mailbox and the piece view,
+     * and updates the attack maps
+     */
+    private void removeFromCore(int square) {
+        int code = mailbox[square];
+        long bit = 1L << square;
+        setAttacks(square, sideOfCode(code), 0L);
+        colorBitboards[sideOfCode(code)] &= ~bit;
+        typeBitboards[(code - 1) & 7] &= ~bit;
+        occupied &= ~bit;
+        hash ^= Zobrist.PIECE_SQUARE[code][square];
+        if (((code - 1) & 7) == Type.PAWN.ordinal()) {
+            pawnHash ^= Zobrist.PIECE_SQUARE[code][square];
+        }
+        midgameScore -= PieceSquareTables.MIDGAME[code][square];
+        endgameScore -= PieceSquareTables.ENDGAME[code][square];
+        phase -= PieceSquareTables.PHASE[(code - 1) & 7];
+        mailbox[square] = EMPTY;
+        pieceObjects[square] = null;
+        refreshSlidersThrough(square);
+    }
+
+    /**
+     * setAttacks records the squares attacked from a square and updates the attacking side's
+     * per-square attacker counts. Only the squares that changed are touched, and a square joins
+     * or leaves the side's attack map when its count moves between zero and one.
+     * @param square the square of the attacking piece
+     * @param side the side of the attacking piece
+     * @param attacks the squares it now attacks, 0 if the square is being emptied
+     */
+    private void setAttacks(int square, int side, long attacks) {
+        long old = attacksFrom[square];
+        if (old == attacks) {
+            return;
+        }
+        attacksFrom[square] = attacks;
+        byte[] counts = attackCounts[side];
+        long removed = old & ~attacks;
+        while (removed != 0) {
+            int target = Long.numberOfTrailingZeros(removed);
+            removed &= removed - 1;
+            if (--counts[target] == 0) {
+                attackMaps[side] &= ~(1L << target);
+            }
+        }
+        long added = attacks & ~old;
+        while (added != 0) {
+            int target = Long.numberOfTrailingZeros(added);
+            added &= added - 1;
+            if (counts[target]++ == 0) {
+                attackMaps[side] |= 1L << target;
+            }
+        }
+    }
+
+    /**
+     * refreshSlidersThrough recomputes the attacks of every rook, bishop and queen whose line
+     * reaches a square whose occupancy just changed. No other piece's attacks depend on occupancy.
+     * @param square the square that was filled or emptied
+     */
+    private void refreshSlidersThrough(int square) {
+        long queens = typeBitboards[Type.QUEEN.ordinal()];
+        long sliders = SlidingAttacks.rook(square, occupied) & (typeBitboards[Type.ROOK.ordinal()] | queens);
+        sliders |= SlidingAttacks.bishop(square, occupied) & (typeBitboards[Type.BISHOP.ordinal()] | queens);
+        while (sliders != 0) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            sliders &= sliders - 1;
+            int code = mailbox[from];
+            int side = sideOfCode(code);
+            setAttacks(from, side, attacksFrom(typeOf(code), side, from, occupied));
+        }
+    }
+
+    /**
+     * getAttackMap returns every square attacked by one side.
+     * The map is kept up to date as pieces move, so reading it is free.
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return the attacked squares
+     */
+    public long getAttackMap(int side) {
+        return attackMaps[side];
+    }
+
+    /**
+     * inCheck checks if a side's king is attacked
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return true if in check, false otherwise (also when the side has no king on the board)
+     */
+    public boolean inCheck(int side) {
+        return (attackMaps[side ^ 1] & colorBitboards[side] & typeBitboards[Type.KING.ordinal()]) != 0;
+    }
+
     /**
      *
      * @return the player who is making a move
@@ -65,6 +365,284 @@ public class Board {
     public void updateCurrentPlayer() {
         blackPlayer.updateTurn();
         whitePlayer.updateTurn();
+        sideToMove ^= 1;
+        hash ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /**
+     * hash returns the Zobrist key of the position, covering every piece and the side to move.
+     * It is kept up to date as pieces are placed, removed and moved, so reading it is free.
+     * @return the 64-bit position key
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * pawnHash returns the Zobrist key of the pawns alone, the XOR of the keys of every pawn.
+     * A pawn's first move needs no key of its own, since a pawn can only make its double step
+     * from its starting row, which the square already tells.
+     * @return the 64-bit key of the pawn structure
+     */
+    public long pawnHash() {
+        return pawnHash;
+    }
+
+    /**
+     * getPieceSquareScore returns the material and piece-square score of the position from white's side,
+     * blended between the middlegame and endgame tables by the material left.
+     * Both scores are kept up to date as pieces are placed, removed and moved, so reading it is O(1).
+     * @return the score in centipawns, positive when white is ahead
+     */
+    public int getPieceSquareScore() {
+        return PieceSquareTables.taper(midgameScore, endgameScore, phase);
+    }
+
+    /**
+     * getPhase returns how much material is left, as the sum of PieceSquareTables.PHASE over every piece
+     * @return the game phase
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * getSideToMove returns the side whose turn it is
+     * @return WHITE_SIDE or BLACK_SIDE
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * createMove encodes the move of whatever piece stands on a square
+     * @param from the square the piece leaves
+     * @param to the square the piece lands on
+     * @return the encoded move
+     */
+    public int createMove(int from, int to) {
+        return Move.encode(from, to, mailbox[from], mailbox[to]);
+    }
+
+    /**
+     * makeMove plays a move and pushes what is needed to take it back onto the undo stack.
+     * The move is not validated; it should come from generateMoves or have passed isAValidMove.
+     * The captured piece leaves its piece list and count, a pawn loses its first move,
+     * and the turn passes to the other player.
+     * @param move the encoded move
+     */
+    public void makeMove(int move) {
+        if (ply == undoMoves.length) {
+            growUndoStack();
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int code = mailbox[from];
+        Piece piece = pieceObjects[from];
+        Piece captured = pieceObjects[to];
+
+        undoMoves[ply] = Move.encode(from, to, code, mailbox[to]);
+        undoCaptured[ply] = captured;
+        undoHashes[ply] = hash;
+        if (captured != null) {
+            if (sideOfCode(mailbox[to]) == BLACK_SIDE) {
+                removeFromList(blackPieces, captured);
+                blackCount--;
+            }
+            else {
+                removeFromList(whitePieces, captured);
+                whiteCount--;
+            }
+            removeFromCore(to);
+        }
+        removeFromCore(from);
+        addToCore(to, code, piece);
+        if (piece instanceof Pawn) {
+            Pawn pawn = (Pawn) piece;
+            undoFirstMove[ply] = pawn.isFirstMove();
+            pawn.updateVerticalMove();
+        }
+        ply++;
+        updateCurrentPlayer();
+    }
+
+    /**
+     * unmakeMove takes back the last move played with makeMove, restoring the captured piece,
+     * the piece counts, the pawn's first move and the turn. A null move on top of the stack
+     * is taken back as with unmakeNullMove.
+     * Nothing happens if there is no move to undo.
+     */
+    public void unmakeMove() {
+        if (ply == 0) {
+            return;
+        }
+        if (undoMoves[ply - 1] == Move.NONE) {
+            unmakeNullMove();
+            return;
+        }
+        ply--;
+        updateCurrentPlayer();
+        int move = undoMoves[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int code = mailbox[to];
+        Piece piece = pieceObjects[to];
+
+        removeFromCore(to);
+        addToCore(from, code, piece);
+        if (piece instanceof Pawn) {
+            ((Pawn) piece).setFirstMove(undoFirstMove[ply]);
+        }
+        Piece captured = undoCaptured[ply];
+        if (captured != null) {
+            undoCaptured[ply] = null;
+            int capturedCode = Move.captured(move);
+            addToCore(to, capturedCode, captured);
+            if (sideOfCode(capturedCode) == BLACK_SIDE) {
+                restoreToList(blackPieces, captured);
+                blackCount++;
+            }
+            else {
+                restoreToList(whitePieces, captured);
+                whiteCount++;
+            }
+        }
+    }
+
+    /**
+     * makeNullMove passes the turn without moving a piece. The search uses it to see if a position
+     * is still good enough when the side to move gives up its move. It goes on the undo stack as
+     * Move.NONE, so a repetition is never looked for across it.
+     */
+    public void makeNullMove() {
+        if (ply == undoMoves.length) {
+            growUndoStack();
+        }
+        undoMoves[ply] = Move.NONE;
+        undoCaptured[ply] = null;
+        undoHashes[ply] = hash;
+        ply++;
+        updateCurrentPlayer();
+    }
+
+    /**
+     * unmakeNullMove takes back the null move played last with makeNullMove
+     */
+    public void unmakeNullMove() {
+        ply--;
+        updateCurrentPlayer();
+    }
+
+    /**
+     * canUndo checks if makeMove has played a move that can still be taken back
+     * @return true if there is a move on the undo stack
+     */
+    public boolean canUndo() {
+        return ply > 0;
+    }
+
+    /**
+     * getPly returns how many moves are on the undo stack
+     * @return the number of moves played with makeMove
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * getMoveHistory returns the moves on the undo stack, oldest first; a null move is Move.NONE
+     * @return a copy of the moves played with makeMove
+     */
+    public int[] getMoveHistory() {
+        return Arrays.copyOf(undoMoves, ply);
+    }
+
+    /**
+     * isRepetition checks if the current position already came up earlier with the same side to move.
+     * Only the moves since the last capture or pawn move are looked at, since nothing before those
+     * can come back.
+     * @return true if the position is a repetition
+     */
+    public boolean isRepetition() {
+        for (int i = ply - 1; i >= 0; i--) {
+            int move = undoMoves[i];
+            if (move == Move.NONE || Move.captured(move) != EMPTY || typeOf(Move.piece(move)) == Type.PAWN) {
+                return false;
+            }
+            if (((ply - i) & 1) == 0 && undoHashes[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * growUndoStack doubles the undo stack; only long games ever reach this
+     */
+    private void growUndoStack() {
+        int capacity = undoMoves.length * 2;
+        undoMoves = Arrays.copyOf(undoMoves, capacity);
+        undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+        undoFirstMove = Arrays.copyOf(undoFirstMove, capacity);
+        undoHashes = Arrays.copyOf(undoHashes, capacity);
+    }
+
+    /**
+     * addToList puts a piece at the end of a piece list and records its index on the piece
+     * @param pieces the piece list
+     * @param piece the piece to add
+     */
+    private static void addToList(List<Piece> pieces, Piece piece) {
+        piece.setListIndex(pieces.size());
+        pieces.add(piece);
+    }
+
+    /**
+     * addPiece puts a piece in its side's piece list
+     * @param piece the piece to add
+     */
+    void addPiece(Piece piece) {
+        addToList(piece.getSide() == BLACK_SIDE ? blackPieces : whitePieces, piece);
+    }
+
+    /**
+     * removeFromList takes a piece out of a piece list by moving the last piece into its place,
+     * so nothing has to shift or be searched. The piece keeps its index for restoreToList.
+     * @param pieces the piece list
+     * @param piece the piece to remove
+     */
+    private static void removeFromList(List<Piece> pieces, Piece piece) {
+        int index = piece.getListIndex();
+        if (index < 0 || index >= pieces.size() || pieces.get(index) != piece) {
+            piece.setListIndex(-1);
+            return;
+        }
+        Piece last = pieces.remove(pieces.size() - 1);
+        if (last != piece) {
+            pieces.set(index, last);
+            last.setListIndex(index);
+        }
+    }
+
+    /**
+     * restoreToList undoes the last removeFromList on the list, putting the piece back at its old index
+     * @param pieces the piece list
+     * @param piece the piece to put back
+     */
+    private static void restoreToList(List<Piece> pieces, Piece piece) {
+        int index = piece.getListIndex();
+        if (index < 0) {
+            return;
+        }
+        if (index < pieces.size()) {
+            Piece moved = pieces.get(index);
+            moved.setListIndex(pieces.size());
+            pieces.add(moved);
+            pieces.set(index, piece);
+        }
+        else {
+            pieces.add(piece);
+        }
     }
 
     /**
@@ -73,16 +651,13 @@ public class Board {
      */
     public void decreasePieceCount(Tile tile) {
         Piece piece = tile.getPiece();
-        String color = tile.getPiece().getPieceColor().toString();
-//        int row = piece.getRow();
-//        int col = piece.getCol();
-        if (color == black) {
+        if (piece.getSide() == BLACK_SIDE) {
             blackCount--;
-            blackPieces.remove(piece);
+            removeFromList(blackPieces, piece);
         }
         else {
             whiteCount--;
-            whitePieces.remove(piece);
+            removeFromList(whitePieces, piece);
         }
     }
 
@@ -143,14 +718,14 @@ public class Board {
      * @param i the index of the board
      */
     public void addBlackPieces(int i) {
-        blackPieces.add(board[i][leftRook].getPiece());
-        blackPieces.add(board[i][rightRook].getPiece());
-        blackPieces.add(board[i][leftKnight].getPiece());
-        blackPieces.add(board[i][rightKnight].getPiece());
-        blackPieces.add(board[i][leftBishop].getPiece());
-        blackPieces.add(board[i][rightBishop].getPiece());
-        blackPieces.add(board[i][blackQueen].getPiece());
-        blackPieces.add(board[i][blackKing].getPiece());
+        addToList(blackPieces, board[i][leftRook].getPiece());
+        addToList(blackPieces, board[i][rightRook].getPiece());
+        addToList(blackPieces, board[i][leftKnight].getPiece());
+        addToList(blackPieces, board[i][rightKnight].getPiece());
+        addToList(blackPieces, board[i][leftBishop].getPiece());
+        addToList(blackPieces, board[i][rightBishop].getPiece());
+        addToList(blackPieces, board[i][blackQueen].getPiece());
+        addToList(blackPieces, board[i][blackKing].getPiece());
     }
 
     /**
@@ -158,40 +733,27 @@ public class Board {
      * @param i the index of the board
      */
     public void addWhitePieces(int i) {
-        whitePieces.add(board[i][leftRook].getPiece());
-        whitePieces.add(board[i][rightRook].getPiece());
-        whitePieces.add(board[i][leftKnight].getPiece());
-        whitePieces.add(board[i][rightKnight].getPiece());
-        whitePieces.add(board[i][leftBishop].getPiece());
-        whitePieces.add(board[i][rightBishop].getPiece());
-        whitePieces.add(board[i][whiteQueen].getPiece());
-        whitePieces.add(board[i][whiteKing].getPiece());
+        addToList(whitePieces, board[i][leftRook].getPiece());
+        addToList(whitePieces, board[i][rightRook].getPiece());
+        addToList(whitePieces, board[i][leftKnight].getPiece());
+        addToList(whitePieces, board[i][rightKnight].getPiece());
+        addToList(whitePieces, board[i][leftBishop].getPiece());
+        addToList(whitePieces, board[i][rightBishop].getPiece());
+        addToList(whitePieces, board[i][whiteQueen].getPiece());
+        addToList(whitePieces, board[i][whiteKing].getPiece());
     }
 
     /**
      * this method is only used if the user chooses the Special Game option
      */
     public void removePawns() {
-        for(int i=0; i < blackPieces.size(); i++) {
-            Piece p = blackPieces.get(i);
-            if (p.getRow() == blackPawnIndex && p.getCol() == 0) {
-                blackPieces.remove(p);
-                i--;
-            }
-            if (p.getRow() == blackPawnIndex && p.getCol() == 7) {
-                blackPieces.remove(p);
-                i--;
-            }
-        }
-        for(int i=0; i < whitePieces.size(); i++) {
-            Piece p = whitePieces.get(i);
-            if (p.getRow() == whitePawnIndex && p.getCol() == 0) {
-                whitePieces.remove(p);
-                i--;
-            }
-            if (p.getRow() == whitePawnIndex && p.getCol() == 7) {
-                whitePieces.remove(p);
-                i--;
+        int[] rows = {blackPawnIndex, whitePawnIndex};
+        for (int row : rows) {
+            for (int col = 0; col < SIZE; col += SIZE - 1) {
+                Piece p = board[row][col].getPiece();
+                if (p != null) {
+                    removeFromList(p.getSide() == BLACK_SIDE ? blackPieces : whitePieces, p);
+                }
             }
         }
     }
@@ -209,10 +771,10 @@ public class Board {
         board[whitePawnIndex][0].setPiece(new NightRider(white));
         board[whitePawnIndex][7].removePiece();
         board[whitePawnIndex][7].setPiece(new Leaper(white));
-        blackPieces.add(board[blackPawnIndex][0].getPiece());
-        blackPieces.add(board[blackPawnIndex][7].getPiece());
-        whitePieces.add(board[whitePawnIndex][0].getPiece());
-        whitePieces.add(board[whitePawnIndex][7].getPiece());
+        addToList(blackPieces, board[blackPawnIndex][0].getPiece());
+        addToList(blackPieces, board[blackPawnIndex][7].getPiece());
+        addToList(whitePieces, board[whitePawnIndex][0].getPiece());
+        addToList(whitePieces, board[whitePawnIndex][7].getPiece());
     }
 
     /**
@@ -254,8 +816,7 @@ public class Board {
      * @return the piece or mull if the tile is empty
      */
     public Piece getPiece(int row, int col) {
-        Tile tile = board[row][col];
-        return tile.getPiece();
+        return pieceObjects[square(row, col)];
     }
 
     /**
@@ -267,8 +828,8 @@ public class Board {
         for(int i=0; i < SIZE; i++) {
             board[blackPawnIndex][i].setPiece(new Pawn(black));
             board[whitePawnIndex][i].setPiece(new Pawn(white));
-            blackPieces.add(board[blackPawnIndex][i].getPiece());
-            whitePieces.add(board[whitePawnIndex][i].getPiece());
+            addToList(blackPieces, board[blackPawnIndex][i].getPiece());
+            addToList(whitePieces, board[whitePawnIndex][i].getPiece());
         }
     }
 
@@ -281,18 +842,161 @@ public class Board {
         setPawns(black, white);
     }
 
+    /**
+     * setSpecialPieces sets up the Special Game: the regular pieces, with the outer pawns
+     * replaced by a Leaper and a NightRider on each side.
+     */
     public void setSpecialPieces() {
         setChessPieces();
         addSpecialPieces();
     }
 
+    /**
+     * createPiece makes a new piece object of a type and color
+     * @param type the piece type
+     * @param color "WHITE" or "BLACK"
+     * @return the new piece
+     */
+    public static Piece createPiece(Type type, String color) {
+        switch (type) {
+            case PAWN:
+                return new Pawn(color);
+            case KNIGHT:
+                return new Knight(color);
+            case BISHOP:
+                return new Bishop(color);
+            case ROOK:
+                return new Rook(color);
+            case QUEEN:
+                return new Queen(color);
+            case KING:
+                return new King(color);
+            case LEAPER:
+                return new Leaper(color);
+            default:
+                return new NightRider(color);
+        }
+    }
+
+    /**
+     * setPosition clears the board and sets up a position written like the piece placement and
+     * side to move fields of a FEN record, e.g. START_POSITION. Rows are listed from row 0 (black's
+     * back row) to row 7, white pieces are upper case and black pieces lower case, using the letters
+     * P, N, B, R, Q, K and L for the Leaper, X for the NightRider, as printPiece does.
+     * A pawn still on its starting row keeps its first move. The undo stack is emptied.
+     * @param position the position text
+     */
+    public void setPosition(String position) {
+        String[] fields = position.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (rows.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE + " rows: " + position);
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            clearSquare(square);
+        }
+        blackPieces.clear();
+        whitePieces.clear();
+        ply = 0;
+        for (int row = 0; row < SIZE; row++) {
+            int col = 0;
+            for (char c : rows[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                int index = PIECE_LETTERS.indexOf(Character.toUpperCase(c));
+                if (index < 0 || col >= SIZE) {
+                    throw new IllegalArgumentException("Bad row " + rows[row] + ": " + position);
+                }
+                String color = Character.isUpperCase(c) ? white : black;
+                Piece piece = createPiece(TYPES[index], color);
+                board[row][col].setPiece(piece);
+                if (piece instanceof Pawn) {
+                    int startRow = color == black ? blackPawnIndex : whitePawnIndex;
+                    ((Pawn) piece).setFirstMove(row == startRow);
+                }
+                addPiece(piece);
+                col++;
+            }
+            if (col != SIZE) {
+                throw new IllegalArgumentException("Bad row " + rows[row] + ": " + position);
+            }
+        }
+        blackCount = blackPieces.size();
+        whiteCount = whitePieces.size();
+        int side = fields.length > 1 && fields[1].equals("b") ? BLACK_SIDE : WHITE_SIDE;
+        if (side != sideToMove) {
+            updateCurrentPlayer();
+        }
+    }
+
+    /**
+     * getPosition writes the position in the format read by setPosition
+     * @return the position text
+     */
+    public String getPosition() {
+        StringBuilder position = new StringBuilder();
+        for (int row = 0; row < SIZE; row++) {
+            int empty = 0;
+            for (int col = 0; col < SIZE; col++) {
+                int code = mailbox[square(row, col)];
+                if (code == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    position.append(empty);
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt((code - 1) & 7);
+                position.append(sideOfCode(code) == WHITE_SIDE ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                position.append(empty);
+            }
+            if (row < SIZE - 1) {
+                position.append('/');
+            }
+        }
+        position.append(sideToMove == WHITE_SIDE ? " w" : " b");
+        return position.toString();
+    }
+
+    /**
+     * copy makes an independent board with the same pieces, side to move and move history,
+     * so a search on the copy sees the same repetitions and can run on another thread.
+     * The moves on the undo stack are taken back and played again on both boards,
+     * so this board must not be used by anyone else while it is copied.
+     * @return the new board
+     */
+    public Board copy() {
+        int[] moves = Arrays.copyOf(undoMoves, ply);
+        for (int i = moves.length - 1; i >= 0; i--) {
+            unmakeMove();
+        }
+        Board copy = new Board();
+        copy.setPosition(getPosition());
+        for (int move : moves) {
+            if (move == Move.NONE) {
+                makeNullMove();
+                copy.makeNullMove();
+            }
+            else {
+                makeMove(move);
+                copy.makeMove(move);
+            }
+        }
+        return copy;
+    }
+
     /**
      * Constructor Board is initialized with new tiles
      */
     public Board() {
         for(int x = 0; x < SIZE; x++) {
             for(int y = 0; y < SIZE; y++) {
-                board[x][y] = new Tile(x,y);
+                board[x][y] = new Tile(this, x, y);
                 if (x%2 == 0 && y%2 == 0) {
                     board[x][y].setTileColor(white);
                 }
@@ -333,10 +1037,15 @@ public class Board {
 
 
     /**
-     * gets the white king for reference
+     * gets the white king for reference, read from the king bitboard.
+     * The piece list is only searched if no white king is on the board.
      * @return the white king
      */
     public Piece getWhiteKing() {
+        long king = getPieceBitboard(WHITE_SIDE, Type.KING);
+        if (king != 0) {
+            return pieceObjects[Long.numberOfTrailingZeros(king)];
+        }
         for (Piece p : whitePieces) {
             if (p.getType() == Type.KING) {
                 return p;
@@ -346,10 +1055,15 @@ public class Board {
     }
 
     /**
-     * gets the black king for reference
+     * gets the black king for reference, read from the king bitboard.
+     * The piece list is only searched if no black king is on the board.
      * @return the black king
      */
     public Piece getBlackKing() {
+        long king = getPieceBitboard(BLACK_SIDE, Type.KING);
+        if (king != 0) {
+            return pieceObjects[Long.numberOfTrailingZeros(king)];
+        }
         for (Piece p : blackPieces) {
             if (p.getType() == Type.KING) {
                 return p;
@@ -377,43 +1091,6 @@ public class Board {
         }
     }
 
-    /**
-     * updateKingTiles keeps a list of all the possible tiles the king can move to
-     * @param kingTiles A list that keeps track of possible tiles the king can move to
-     * @param king the king piece
-     * @param board the game board
-     * @param row the king's row position
-     * @param col the king's col position
-     * @return the list of all coordinates of potential king moves
-     */
-    public List<Pair> updateKingTiles(List<Pair> kingTiles, Piece king, Board board, int row, int col) {
-        if (validKingTile(king, board, row-1, col-1)) {
-            kingTiles.add(new Pair(row-1, col-1));
-        }
-        if (validKingTile(king, board, row-1, col)) {
-            kingTiles.add(new Pair(row-1, col));
-        }
-        if (validKingTile(king, board, row-1, col+1)) {
-            kingTiles.add(new Pair(row-1, col+1));
-        }
-        if (validKingTile(king, board, row, col-1)) {
-            kingTiles.add(new Pair(row, col-1));
-        }
-        if (validKingTile(king, board, row, col+1)) {
-            kingTiles.add(new Pair(row, col+1));
-        }
-        if (validKingTile(king, board, row+1, col-1)) {
-            kingTiles.add(new Pair(row+1, col-1));
-        }
-        if (validKingTile(king, board, row+1, col)) {
-            kingTiles.add(new Pair(row+1, col));
-        }
-        if (validKingTile(king, board, row+1, col+1)) {
-            kingTiles.add(new Pair(row+1, col+1));
-        }
-        return kingTiles;
-    }
-
     /**
      * getAttackingTiles keeps a list of all the pieces that can check a king
      * @param opponent chess pieces that can check a king
@@ -424,238 +1101,403 @@ public class Board {
      * @return a list of all attacking pieces
      */
     public List<Pair> getAttackingTiles (String opponent, List<Pair> attackingTiles, Board board, int row, int col) {
-        List<Piece> pieces;
-        if (opponent == "WHITE") {
-            pieces = whitePieces;
-        }
-        else {
-            pieces = blackPieces;
-        }
-        for (Piece p : pieces) {
-            if (p.isAValidMove(board, p.getRow(), p.getCol(), row, col)) {
-                attackingTiles.add(new Pair(p.getRow(), p.getCol()));
-            }
+        long attackers = board.attackersTo(square(row, col), sideOf(opponent), board.getOccupied());
+        while (attackers != 0) {
+            int from = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+            attackingTiles.add(new Pair(from / SIZE, from % SIZE));
         }
         return attackingTiles;
     }
 
+
     /**
-     * Updates an arrayList containing coordinates of valid tile moves
-     * @param tileArray
-     * @param tilesToRemove
-     * @return
+     * validates if there is a checkmate: the user is in check and has no legal move
+     * @param board the chess board
+     * @param user the player that could lose the game
+     * @param opponent the player that could win the game
+     * @return true or false
      */
-    public List<Pair> updateTileMoves(List<Pair> tileArray, List<Integer> tilesToRemove) {
-        Collections.sort(tilesToRemove, Collections.reverseOrder());
-        for (int i=0; i < tilesToRemove.size(); i++) {
-            Integer index = tilesToRemove.get(i);
-//            Pair coord = tileArray.get(index);
-            tileArray.remove(tileArray.get(index));
+    public boolean checkMate(Board board, String user, String opponent) {
+        if (!check(board, user, opponent)) {
+            return false;
         }
-        return tileArray;
+        return !board.hasLegalMove(sideOf(user));
     }
 
-
     /**
-     * Eliminate moves the king can make based on opponent's checks
+     * Check returns if a king is in check, looking the king square up in the opponent's attack map
      * @param board
-     * @param array
+     * @param user
+     * @param opponent
      * @return
      */
-    public List<List> eliminateKingMoves(Board board, List<List> array) {
-        List<Pair> kingTiles = array.get(0);
-        List<Pair> blockTiles = array.get(1);
-        List<Piece> opponentPieces = array.get(2);
-        List<Integer> tilesToRemove = array.get(3);
-
-        for(int i=0; i < opponentPieces.size(); i++) {
-            Piece p = opponentPieces.get(i);
-            for(int j=0; j < kingTiles.size(); j++) {
-                Pair coord = kingTiles.get(j);
-                if (p.isAValidMove(board, p.getRow(), p.getCol(), coord.getRow(), coord.getCol())) {
-                    tilesToRemove.add(j);
-                    blockTiles.add(coord);
-                }
-            }
-            kingTiles = updateTileMoves(kingTiles, tilesToRemove);
-            tilesToRemove.clear();
+    public boolean check(Board board, String user, String opponent) {
+        if (user == "BLACK") {
+            return board.inCheck(BLACK_SIDE);
+        }
+        else if (user == "WHITE"){
+            return board.inCheck(WHITE_SIDE);
+        }
+        else {
+            System.out.println("Please check Player types.");
+            return false;
         }
-
-        array.clear();
-        array.add(kingTiles);
-        array.add(blockTiles);
-        array.add(opponentPieces);
-        array.add(tilesToRemove);
-        return array;
     }
 
     /**
-     * checks if current player can eliminate pieces that are checking the king
-     * @param board the game board
-     * @param array array containing several lists of potential moves
-     * @return
+     * attackersTo returns every piece of one side that attacks a square.
+     * Sliders use the SlidingAttacks tables and all other pieces the JumpAttacks tables,
+     * looked up from the target square outwards.
+     * @param square the square being attacked
+     * @param side the attacking side
+     * @param occupancy the occupancy to slide through
+     * @return a bitboard of the attacking pieces
      */
-    public List<List> test2(Board board, List<List> array) {
-        List<Pair> kingTiles = array.get(0);
-        List<Pair> blockTiles = array.get(1);
-        List<Integer> tilesToRemove = array.get(2);
-        List<Piece> userPieces = array.get(3);
-        List<Pair> attackingTiles = array.get(4);
-
-        for(int i=0; i < userPieces.size(); i++) {
-            Piece p = userPieces.get(i);
-            if (p.getType() != Type.KING) {
-                for (int j = 0; j < blockTiles.size(); j++) {
-                    Pair coord = blockTiles.get(j);
-                    if (p.isAValidMove(board, p.getRow(), p.getCol(), coord.getRow(), coord.getCol())) {
-                        kingTiles.add(coord);
-                        tilesToRemove.add(j);
-                    }
-                }
-                blockTiles = updateTileMoves(blockTiles, tilesToRemove);
-                tilesToRemove.clear();
-            }
-            for(int k=0; k < attackingTiles.size(); k++) {
-                Pair coord = attackingTiles.get(k);
-                if (p.isAValidMove(board, p.getRow(), p.getCol(), coord.getRow(), coord.getCol())) {
-                    tilesToRemove.add(k);
-                }
-            }
-            attackingTiles = updateTileMoves(attackingTiles, tilesToRemove);
-            tilesToRemove.clear();
-        }
-
-        array.clear();
-        array.add(kingTiles);
-        array.add(attackingTiles);
-        return array;
+    public long attackersTo(int square, int side, long occupancy) {
+        long pieces = colorBitboards[side];
+        long rookLike = typeBitboards[Type.ROOK.ordinal()] | typeBitboards[Type.QUEEN.ordinal()];
+        long bishopLike = typeBitboards[Type.BISHOP.ordinal()] | typeBitboards[Type.QUEEN.ordinal()];
+        long attackers = JumpAttacks.PAWN[side ^ 1][square] & typeBitboards[Type.PAWN.ordinal()];
+        attackers |= JumpAttacks.KNIGHT[square] & typeBitboards[Type.KNIGHT.ordinal()];
+        attackers |= JumpAttacks.KING[square] & typeBitboards[Type.KING.ordinal()];
+        attackers |= JumpAttacks.LEAPER[square] & typeBitboards[Type.LEAPER.ordinal()];
+        attackers |= JumpAttacks.NIGHTRIDER[square] & typeBitboards[Type.NIGHTRIDER.ordinal()];
+        attackers |= SlidingAttacks.rook(square, occupancy) & rookLike;
+        attackers |= SlidingAttacks.bishop(square, occupancy) & bishopLike;
+        return attackers & pieces;
     }
 
     /**
-     * validates if there is a checkmate
-     * @param board the chess board
-     * @param user the player that could lose the game
-     * @param opponent the player that could win the game
-     * @return true or false
+     * isSquareAttacked checks if any piece of a side attacks a square
+     * @param square the square being attacked
+     * @param side the attacking side
+     * @return true if attacked, false otherwise
      */
-    public boolean checkMate(Board board, String user, String opponent) {
-        if (!check(board, user, opponent)) {
-            return false;
-        }
-
-        Piece king = getKing(user);
-        List<List<Piece>> chessPieces = getPieces(user);
-        List<Piece> userPieces = chessPieces.get(0);
-        List<Piece> opponentPieces = chessPieces.get(1);
-
-        int row = king.getRow();
-        int col = king.getCol();
-        board.getTile(row, col).removePiece();
-
-        List<Pair> kingTiles = new ArrayList<Pair>();
-        List<Pair> blockTiles = new ArrayList<Pair>();
-        List<Pair> attackingTiles = new ArrayList<Pair>();
-        List<Integer> tilesToRemove = new ArrayList<>();
+    public boolean isSquareAttacked(int square, int side) {
+        return (attackMaps[side] & (1L << square)) != 0;
+    }
 
-        kingTiles = updateKingTiles(kingTiles, king, board, row, col);
-        attackingTiles = getAttackingTiles(opponent, attackingTiles, board, row, col);
+    /**
+     * generateMoves fills a buffer with every pseudo-legal move of one side,
+     * i.e. moves that follow the movement rules of each piece but may leave the own king in check.
+     * @param color "WHITE" or "BLACK"
+     * @param buffer the buffer to append to
+     */
+    public void generateMoves(String color, MoveBuffer buffer) {
+        generateMoves(sideOf(color), buffer);
+    }
 
-        List<List> array = new ArrayList<>();
-        array.add(kingTiles);
-        array.add(blockTiles);
-        array.add(opponentPieces);
-        array.add(tilesToRemove);
+    /**
+     * generateMoves fills a buffer with every pseudo-legal move of one side
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @param buffer the buffer to append to
+     */
+    public void generateMoves(int side, MoveBuffer buffer) {
+        generatePawnMoves(side, buffer);
+        long targets = ~colorBitboards[side];
+        generatePieceMoves(side, Type.KNIGHT, targets, buffer);
+        generatePieceMoves(side, Type.BISHOP, targets, buffer);
+        generatePieceMoves(side, Type.ROOK, targets, buffer);
+        generatePieceMoves(side, Type.QUEEN, targets, buffer);
+        generatePieceMoves(side, Type.KING, targets, buffer);
+        generatePieceMoves(side, Type.LEAPER, targets, buffer);
+        generatePieceMoves(side, Type.NIGHTRIDER, targets, buffer);
+    }
 
-        array = eliminateKingMoves(board, array);
-        array.remove(2);
+    /**
+     * generateLegalMoves fills a buffer with the moves of one side that do not leave its king in check
+     * @param color "WHITE" or "BLACK"
+     * @param buffer the buffer to append to
+     */
+    public void generateLegalMoves(String color, MoveBuffer buffer) {
+        generateLegalMoves(sideOf(color), buffer);
+    }
 
-        array.add(userPieces);
-        array.add(attackingTiles);
-        array = test2(board, array);
+    /**
+     * generateLegalMoves fills a buffer with the moves of one side that do not leave its king in check
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @param buffer the buffer to append to
+     */
+    public void generateLegalMoves(int side, MoveBuffer buffer) {
+        generateLegal(side, buffer, ~0L);
+    }
 
-        kingTiles = array.get(0);
-        attackingTiles = array.get(1);
+    /**
+     * generateLegalCaptures fills a buffer with the legal moves of one side that take a piece
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @param buffer the buffer to append to
+     */
+    public void generateLegalCaptures(int side, MoveBuffer buffer) {
+        generateLegal(side, buffer, colorBitboards[side ^ 1]);
+    }
 
-        board.getTile(row, col).setPiece(king);
+    /**
+     * generateLegal adds the legal moves of one side that land on one of the given squares
+     */
+    private void generateLegal(int side, MoveBuffer buffer, long mask) {
+        prepareLegality(side);
+        long pieces = colorBitboards[side];
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            int code = mailbox[from];
+            long targets = legalTargetsPrepared(from, side) & mask;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                buffer.add(Move.encode(from, to, code, mailbox[to]));
+            }
+        }
+    }
 
-        if (kingTiles.size() == 0 && attackingTiles.size() > 0) {
+    /**
+     * hasLegalMove checks if a side can make any legal move, stopping at the first one found.
+     * King moves are tried first since they are the cheapest to rule out.
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return true if at least one legal move exists
+     */
+    public boolean hasLegalMove(int side) {
+        prepareLegality(side);
+        long king = colorBitboards[side] & typeBitboards[Type.KING.ordinal()];
+        if (king != 0 && legalTargetsPrepared(Long.numberOfTrailingZeros(king), side) != 0) {
             return true;
         }
-
+        long pieces = colorBitboards[side] & ~king;
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (legalTargetsPrepared(from, side) != 0) {
+                return true;
+            }
+        }
         return false;
     }
 
     /**
-     * validKingTile checks if the king can move to a certain position
-     * @param p the chess piece
-     * @param board the game board
-     * @param row the row position of the king
-     * @param col the column position of the king
-     * @return true if valid tile, false otherwise
+     * legalTargets returns the squares the piece on a square can legally move to
+     * @param square the square of the piece
+     * @return the legal target squares, 0 if the square is empty
      */
-    public boolean validKingTile(Piece p, Board board, int row, int col) {
-        if (p.outOfBounds(row, col, board.getBoardSize(), board.getBoardSize())) {
-            return false;
+    public long legalTargets(int square) {
+        int code = mailbox[square];
+        if (code == EMPTY) {
+            return 0L;
         }
-        if (board.getTile(row, col).getOccupation()) {
-            return false;
+        int side = sideOfCode(code);
+        prepareLegality(side);
+        return legalTargetsPrepared(square, side);
+    }
+
+    /**
+     * checkers returns the enemy pieces giving check to a side's king
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return the checking pieces, 0 if not in check or without a king
+     */
+    public long checkers(int side) {
+        long king = colorBitboards[side] & typeBitboards[Type.KING.ordinal()];
+        if (king == 0) {
+            return 0L;
         }
-        return true;
+        return attackersTo(Long.numberOfTrailingZeros(king), side ^ 1, occupied);
     }
 
     /**
-     * validates whether a chess piece can capture the king
-     * @param board
-     * @param opponent
-     * @param row
-     * @param col
-     * @param attack
-     * @return true or false
+     * pinnedPieces returns a side's pieces that are pinned to their king by an enemy rook, bishop or queen
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @return the pinned pieces
+     */
+    public long pinnedPieces(int side) {
+        prepareLegality(side);
+        return pinned;
+    }
+
+    /**
+     * prepareLegality works out, for one side, the check mask (the squares a non-king move must land on:
+     * the checker, or a square between it and the king when the checker slides; a Leaper checking
+     * two squares away jumps and cannot be blocked) and the pinned pieces with the line each one
+     * is allowed to move along. Every legal move query reads these.
+     * @param side WHITE_SIDE or BLACK_SIDE
      */
-    public List<Boolean> validateAttacks(Board board, String opponent, int row, int col, List<Boolean> attack) {
-        List<Piece> opponentPieces;
-        if (opponent == "WHITE") {
-            opponentPieces = whitePieces;
+    private void prepareLegality(int side) {
+        pinned = 0L;
+        long king = colorBitboards[side] & typeBitboards[Type.KING.ordinal()];
+        if (king == 0) {
+            checkMask = ~0L;
+            doubleCheck = false;
+            return;
         }
-        else {
-            opponentPieces = blackPieces;
+        int kingSquare = Long.numberOfTrailingZeros(king);
+        int enemy = side ^ 1;
+        long checking = attackersTo(kingSquare, enemy, occupied);
+        doubleCheck = Long.bitCount(checking) > 1;
+        if (checking == 0) {
+            checkMask = ~0L;
         }
-        for(int i=0; i < opponentPieces.size(); i++) {
-            Piece p = opponentPieces.get(i);
-            if (p.isAValidMove(board, p.getRow(), p.getCol(), row, col)) {
-                attack.add(true);
+        else {
+            checkMask = checking;
+            Type checker = typeOf(mailbox[Long.numberOfTrailingZeros(checking)]);
+            if (checker == Type.ROOK || checker == Type.BISHOP || checker == Type.QUEEN) {
+                checkMask |= SlidingAttacks.between(kingSquare, Long.numberOfTrailingZeros(checking));
             }
-            else {
-                attack.add(false);
+        }
+
+        long enemies = colorBitboards[enemy];
+        long queens = typeBitboards[Type.QUEEN.ordinal()];
+        long snipers = SlidingAttacks.rook(kingSquare, enemies) & (typeBitboards[Type.ROOK.ordinal()] | queens);
+        snipers |= SlidingAttacks.bishop(kingSquare, enemies) & (typeBitboards[Type.BISHOP.ordinal()] | queens);
+        snipers &= enemies;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long line = SlidingAttacks.between(kingSquare, sniper);
+            long blockers = line & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & colorBitboards[side]) != 0) {
+                pinned |= blockers;
+                pinRays[Long.numberOfTrailingZeros(blockers)] = line | (1L << sniper);
             }
         }
-        return attack;
     }
 
     /**
-     * Check returns if a king is in check
-     * @param board
-     * @param user
-     * @param opponent
-     * @return
+     * legalTargetsPrepared returns the legal targets of a piece once prepareLegality has run for its side
      */
-    public boolean check(Board board, String user, String opponent) {
-        Piece king;
-        if (user == "BLACK") {
-            king = getBlackKing();
+    private long legalTargetsPrepared(int square, int side) {
+        int code = mailbox[square];
+        Type type = typeOf(code);
+        long own = colorBitboards[side];
+        if (type == Type.KING) {
+            long kingBit = 1L << square;
+            long candidates = JumpAttacks.KING[square] & ~own;
+            long targets = 0L;
+            while (candidates != 0) {
+                int to = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if (attackersTo(to, side ^ 1, occupied ^ kingBit) == 0) {
+                    targets |= 1L << to;
+                }
+            }
+            return targets;
         }
-        else if (user == "WHITE"){
-            king = getWhiteKing();
+        if (doubleCheck) {
+            return 0L;
+        }
+        long targets;
+        if (type == Type.PAWN) {
+            targets = pawnTargets(square, side);
         }
         else {
-            System.out.println("Please check Player types.");
-            return false;
+            targets = attacksFrom(type, side, square, occupied) & ~own;
+        }
+        targets &= checkMask;
+        if ((pinned & (1L << square)) != 0) {
+            targets &= pinRays[square];
+        }
+        return targets;
+    }
+
+    /**
+     * pawnTargets returns the squares a pawn can push or capture to, ignoring checks and pins
+     */
+    private long pawnTargets(int square, int side) {
+        long targets = JumpAttacks.PAWN[side][square] & colorBitboards[side ^ 1];
+        int step = side == BLACK_SIDE ? SIZE : -SIZE;
+        int to = square + step;
+        if (to >= 0 && to < SQUARES && mailbox[to] == EMPTY) {
+            targets |= 1L << to;
+            int startRow = side == BLACK_SIDE ? blackPawnIndex : whitePawnIndex;
+            if (square / SIZE == startRow && mailbox[to + step] == EMPTY) {
+                targets |= 1L << (to + step);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * isLegal checks that a pseudo-legal move does not leave the mover's king attacked.
+     * The move is not played; the occupancy after the move is built and the king square
+     * is tested against it, ignoring a piece that the move captures.
+     * @param move an encoded pseudo-legal move
+     * @return true if the king is safe after the move, false otherwise
+     */
+    public boolean isLegal(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int side = sideOfCode(Move.piece(move));
+        long king = colorBitboards[side] & typeBitboards[Type.KING.ordinal()];
+        if (king == 0) {
+            return true;
+        }
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        int kingSquare = (king & fromBit) != 0 ? to : Long.numberOfTrailingZeros(king);
+        long after = (occupied & ~fromBit) | toBit;
+        return (attackersTo(kingSquare, side ^ 1, after) & ~toBit) == 0;
+    }
+
+    /**
+     * generatePawnMoves adds the pushes, double pushes from the starting row and diagonal captures of one side's pawns
+     */
+    private void generatePawnMoves(int side, MoveBuffer buffer) {
+        int code = pieceCode(side, Type.PAWN);
+        long pawns = colorBitboards[side] & typeBitboards[Type.PAWN.ordinal()];
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long targets = pawnTargets(from, side);
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                buffer.add(Move.encode(from, to, code, mailbox[to]));
+            }
+        }
+    }
+
+    /**
+     * generatePieceMoves adds the moves of every piece of one type and side that land on the target squares
+     */
+    private void generatePieceMoves(int side, Type type, long targets, MoveBuffer buffer) {
+        int code = pieceCode(side, type);
+        long pieces = colorBitboards[side] & typeBitboards[type.ordinal()];
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long attacks = attacksFrom(type, side, from, occupied) & targets;
+            while (attacks != 0) {
+                int to = Long.numberOfTrailingZeros(attacks);
+                attacks &= attacks - 1;
+                buffer.add(Move.encode(from, to, code, mailbox[to]));
+            }
+        }
+    }
+
+    /**
+     * attacksFrom returns the squares a piece of the given type attacks from a square
+     * @param type the piece type
+     * @param side the side of the piece, only used for pawns
+     * @param square the square of the piece
+     * @param occupancy the occupancy sliders stop at
+     * @return the attacked squares
+     */
+    public static long attacksFrom(Type type, int side, int square, long occupancy) {
+        switch (type) {
+            case PAWN:
+                return JumpAttacks.PAWN[side][square];
+            case KNIGHT:
+                return JumpAttacks.KNIGHT[square];
+            case BISHOP:
+                return SlidingAttacks.bishop(square, occupancy);
+            case ROOK:
+                return SlidingAttacks.rook(square, occupancy);
+            case QUEEN:
+                return SlidingAttacks.queen(square, occupancy);
+            case KING:
+                return JumpAttacks.KING[square];
+            case LEAPER:
+                return JumpAttacks.LEAPER[square];
+            default:
+                return JumpAttacks.NIGHTRIDER[square];
         }
-        int row = king.getRow();
-        int col = king.getCol();
-        List<Boolean> attack = new ArrayList<>();
-        attack = validateAttacks(board, opponent, row, col, attack);
-        return (attack.contains(true));
     }
 
     /**
@@ -696,51 +1538,7 @@ public class Board {
         if (check(board, user, opponent)) {
             return false;
         }
-
-        Piece king = getKing(user);
-        List<List<Piece>> chessPieces = getPieces(user);
-        List<Piece> userPieces = chessPieces.get(0);
-        List<Piece> opponentPieces = chessPieces.get(1);
-
-        int row = king.getRow();
-        int col = king.getCol();
-        board.getTile(row, col).removePiece();
-
-        List<Pair> kingTiles = new ArrayList<Pair>();
-        List<Pair> blockTiles = new ArrayList<Pair>();
-        List<Pair> attackingTiles = new ArrayList<Pair>();
-        List<Integer> tilesToRemove = new ArrayList<>();
-        kingTiles = updateKingTiles(kingTiles, king, board, row, col);
-        attackingTiles = getAttackingTiles(opponent, attackingTiles, board, row, col);
-
-        List<List> array = new ArrayList<>();
-        array.add(kingTiles);
-        array.add(blockTiles);
-        array.add(opponentPieces);
-        array.add(tilesToRemove);
-
-        array = eliminateKingMoves(board, array);
-        array.remove(2);
-
-        array.add(userPieces);
-        array.add(attackingTiles);
-        array = test2(board, array);
-
-        kingTiles = array.get(0);
-
-        board.getTile(row, col).setPiece(king);
-
-        if (kingTiles.size() == 0){
-            for(int i=0; i< userPieces.size(); i++) {
-                Piece p = userPieces.get(i);
-                if (p.getType() != Type.KING && p.canMove(board)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
-        return false;
+        return !board.hasLegalMove(sideOf(user));
     }
 
     public static void main (String args[]) {
@@ -0,0 +1,61 @@
+package Game;
+
+/**
+ * JumpAttacks holds the squares reachable by the pieces that hop instead of slide.
+ * Every table is indexed by square (row * 8 + column) and is filled once when the class loads,
+ * so asking where a Knight, King, Leaper or NightRider can land is a single array read.
+ * The squares a pawn captures on are kept here too, one table per side.
+ */
+public final class JumpAttacks {
+
+    private static final int[][] KNIGHT_OFFSETS = {
+            {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+    private static final int[][] KING_OFFSETS = {
+            {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+    };
+    private static final int[][] LEAPER_OFFSETS = {
+            {-2, 0}, {0, -2}, {0, 2}, {2, 0}
+    };
+    private static final int[][] NIGHTRIDER_OFFSETS = {
+            {-3, -1}, {-3, 1}, {-1, -3}, {-1, 3}, {1, -3}, {1, 3}, {3, -1}, {3, 1}
+    };
+    private static final int[][] WHITE_PAWN_OFFSETS = {
+            {-1, -1}, {-1, 1}
+    };
+    private static final int[][] BLACK_PAWN_OFFSETS = {
+            {1, -1}, {1, 1}
+    };
+
+    public static final long[] KNIGHT = build(KNIGHT_OFFSETS);
+    public static final long[] KING = build(KING_OFFSETS);
+    public static final long[] LEAPER = build(LEAPER_OFFSETS);
+    public static final long[] NIGHTRIDER = build(NIGHTRIDER_OFFSETS);
+    public static final long[][] PAWN = {build(WHITE_PAWN_OFFSETS), build(BLACK_PAWN_OFFSETS)};
+
+    private JumpAttacks() {
+    }
+
+    /**
+     * build turns a list of row/column offsets into one bitboard per square
+     * @param offsets the jumps the piece can make
+     * @return the attack table
+     */
+    private static long[] build(int[][] offsets) {
+        long[] table = new long[Board.SQUARES];
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                long attacks = 0L;
+                for (int[] offset : offsets) {
+                    int r = row + offset[0];
+                    int c = col + offset[1];
+                    if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                        attacks |= 1L << Board.square(r, c);
+                    }
+                }
+                table[Board.square(row, col)] = attacks;
+            }
+        }
+        return table;
+    }
+}
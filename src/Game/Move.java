@@ -0,0 +1,100 @@
+package Game;
+
+/**
+ * Move packs a move into a single int so that move lists can live in primitive arrays.
+ * Bits 0-5 hold the from square, bits 6-11 the to square, bits 12-16 the code of the
+ * moving piece and bits 17-21 the code of the captured piece (Board.EMPTY for quiet moves).
+ * Squares are numbered as on the Board, row * 8 + column.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private Move() {
+    }
+
+    /**
+     * encode packs the parts of a move into an int
+     * @param from the square the piece leaves
+     * @param to the square the piece lands on
+     * @param piece the code of the moving piece
+     * @param captured the code of the captured piece, or Board.EMPTY
+     * @return the encoded move
+     */
+    public static int encode(int from, int to, int piece, int captured) {
+        return from | (to << 6) | (piece << 12) | (captured << 17);
+    }
+
+    /**
+     * from returns the square the piece leaves
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * to returns the square the piece lands on
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * piece returns the code of the moving piece
+     */
+    public static int piece(int move) {
+        return (move >>> 12) & 31;
+    }
+
+    /**
+     * captured returns the code of the captured piece, or Board.EMPTY
+     */
+    public static int captured(int move) {
+        return (move >>> 17) & 31;
+    }
+
+    /**
+     * isCapture checks if the move takes a piece
+     */
+    public static boolean isCapture(int move) {
+        return captured(move) != Board.EMPTY;
+    }
+
+    /**
+     * toString writes a move in coordinate notation, columns a-h from left to right
+     * and ranks 8-1 from row 0 to row 7, e.g. "e2e4" for white's king pawn.
+     * @param move the encoded move
+     * @return the move as text
+     */
+    public static String toString(int move) {
+        return squareName(from(move)) + squareName(to(move));
+    }
+
+    /**
+     * squareName writes a square in coordinate notation
+     * @param square the square index
+     * @return the name of the square, e.g. "a8" for square 0
+     */
+    public static String squareName(int square) {
+        char file = (char) ('a' + square % 8);
+        char rank = (char) ('8' - square / 8);
+        return "" + file + rank;
+    }
+
+    /**
+     * parseSquare reads a square written in coordinate notation
+     * @param name the name of the square, e.g. "e4"
+     * @return the square index, or -1 if the name is not a square
+     */
+    public static int parseSquare(String name) {
+        if (name.length() != 2) {
+            return -1;
+        }
+        int col = name.charAt(0) - 'a';
+        int row = '8' - name.charAt(1);
+        if (col < 0 || col > 7 || row < 0 || row > 7) {
+            return -1;
+        }
+        return Board.square(row, col);
+    }
+}
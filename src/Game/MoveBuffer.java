@@ -0,0 +1,85 @@
+package Game;
+
+/**
+ * MoveBuffer is a caller-owned list of encoded moves backed by an int array.
+ * Move generation only ever appends to it, so a buffer can be reused from node to node
+ * without allocating.
+ */
+public class MoveBuffer {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveBuffer(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * add appends an encoded move
+     * @param move the move to add
+     */
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * get returns the move at an index
+     * @param index the position in the buffer
+     * @return the encoded move
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * set replaces the move at an index
+     * @param index the position in the buffer
+     * @param move the encoded move
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * size returns how many moves are in the buffer
+     * @return the number of moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * truncate drops every move from an index onwards
+     * @param newSize the number of moves to keep
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * clear empties the buffer
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * contains checks if a move is in the buffer
+     * @param move the encoded move
+     * @return true if present, false otherwise
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
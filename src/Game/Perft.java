@@ -0,0 +1,124 @@
+package Game;
+
+import java.io.PrintStream;
+
+/**
+ * Perft counts the leaf nodes of the legal move tree to a fixed depth.
+ * The counts are a correctness check for move generation and make/unmake, since any
+ * missing or extra move changes them, and the time taken is a repeatable throughput number.
+ * SUITE holds reference positions with their known counts, including Special Game positions
+ * with Leapers and NightRiders.
+ *
+ * Usage: Perft [standard | special | "position"] depth [divide]
+ */
+public class Perft {
+
+    private static final int MAX_DEPTH = 32;
+
+    /**
+     * Reference positions and their counts for depth 1, 2, 3, ...
+     * Positions are written as read by Board.setPosition.
+     */
+    public static final Object[][] SUITE = {
+            {Board.START_POSITION, new long[]{20, 400, 8902, 197281, 4865351}},
+            {Board.SPECIAL_START_POSITION, new long[]{19, 360, 8136, 182979, 4707880}},
+            {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w", new long[]{46, 1865, 86585, 3488552}},
+            {"4k3/8/8/8/8/8/8/R3K2R w", new long[]{24, 106, 2958, 16760}},
+            {"r1bqkb1r/lpp2ppx/2np1n2/4p3/2B1P3/2N2N2/XPPP1PPL/R1BQK2R w", new long[]{34, 1014, 34238, 1068994}},
+            {"4k3/8/3X4/8/2L1l3/8/8/4K3 b", new long[]{9, 126, 1114, 15130}},
+            {"7k/8/2R1xp1L/1b1rp3/4p3/4p3/8/2rBK3 b", new long[]{3, 42, 1355, 18639}},
+    };
+
+    private final Board board;
+    private final MoveBuffer[] buffers = new MoveBuffer[MAX_DEPTH];
+
+    public Perft(Board board) {
+        this.board = board;
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            buffers[i] = new MoveBuffer();
+        }
+    }
+
+    /**
+     * perft counts the legal move sequences of a given length from the current position.
+     * The last ply is counted from the move list instead of being played.
+     * @param depth the number of plies
+     * @return the number of leaf nodes
+     */
+    public long perft(int depth) {
+        return perft(depth, 0);
+    }
+
+    private long perft(int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveBuffer moves = buffers[ply];
+        moves.clear();
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * divide prints the perft count below each root move, which narrows a wrong total down to one move
+     * @param depth the number of plies, counting the root move
+     * @param out where to print
+     * @return the total number of leaf nodes
+     */
+    public long divide(int depth, PrintStream out) {
+        MoveBuffer moves = buffers[0];
+        moves.clear();
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        long total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            long nodes = perft(depth - 1, 1);
+            board.unmakeMove();
+            out.println(Move.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: Perft [standard | special | \"position\"] depth [divide]");
+            return;
+        }
+        Board board = new Board();
+        if (args[0].equals("standard")) {
+            board.setPosition(Board.START_POSITION);
+        }
+        else if (args[0].equals("special")) {
+            board.setPosition(Board.SPECIAL_START_POSITION);
+        }
+        else {
+            board.setPosition(args[0]);
+        }
+        int depth = Integer.parseInt(args[1]);
+        Perft perft = new Perft(board);
+
+        long start = System.nanoTime();
+        long nodes;
+        if (args.length > 2 && args[2].equals("divide")) {
+            nodes = perft.divide(depth, System.out);
+        }
+        else {
+            nodes = perft.perft(depth);
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        System.out.println("nodes " + nodes);
+        System.out.println("time " + elapsed / 1000000 + " ms");
+        System.out.println("nps " + nodes * 1000000000L / elapsed);
+    }
+}
@@ -0,0 +1,165 @@
+package Game;
+
+/**
+ * PieceSquareTables holds what every piece is worth on every square, once for the middlegame
+ * and once for the endgame, material included. The tables are indexed by piece code and square;
+ * white pieces count positive and black pieces negative, so the Board can add up a position's
+ * score as pieces are placed and removed.
+ *
+ * The tables below are written from white's side with row 0 (black's back row) first;
+ * black uses the same tables with the rows flipped. The Leaper and the NightRider hop to fixed
+ * squares, so their tables are derived from how many squares they reach from each square.
+ */
+public final class PieceSquareTables {
+
+    private static final int CODES = 17;
+
+    /**
+     * Material in centipawns, indexed by Type.ordinal()
+     */
+    public static final int[] MIDGAME_VALUES = {82, 337, 365, 477, 1025, 0, 210, 250};
+    public static final int[] ENDGAME_VALUES = {94, 281, 297, 512, 936, 0, 230, 240};
+
+    /**
+     * How much each piece counts toward the middlegame, indexed by Type.ordinal().
+     * A position with every piece of the Special Game is above MAX_PHASE and counts as a full middlegame.
+     */
+    public static final int[] PHASE = {0, 1, 1, 2, 4, 0, 1, 1};
+    public static final int MAX_PHASE = 24;
+
+    public static final int[][] MIDGAME = new int[CODES][Board.SQUARES];
+    public static final int[][] ENDGAME = new int[CODES][Board.SQUARES];
+
+    private static final int[] PAWN = {
+             0,   0,   0,   0,   0,   0,   0,   0,
+            50,  50,  50,  50,  50,  50,  50,  50,
+            10,  10,  20,  30,  30,  20,  10,  10,
+             5,   5,  10,  25,  25,  10,   5,   5,
+             0,   0,   0,  20,  20,   0,   0,   0,
+             5,  -5, -10,   0,   0, -10,  -5,   5,
+             5,  10,  10, -20, -20,  10,  10,   5,
+             0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] PAWN_ENDGAME = {
+             0,   0,   0,   0,   0,   0,   0,   0,
+            80,  80,  80,  80,  80,  80,  80,  80,
+            50,  50,  50,  50,  50,  50,  50,  50,
+            30,  30,  30,  30,  30,  30,  30,  30,
+            15,  15,  15,  15,  15,  15,  15,  15,
+             5,   5,   5,   5,   5,   5,   5,   5,
+             0,   0,   0,   0,   0,   0,   0,   0,
+             0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] KNIGHT = {
+           -50, -40, -30, -30, -30, -30, -40, -50,
+           -40, -20,   0,   0,   0,   0, -20, -40,
+           -30,   0,  10,  15,  15,  10,   0, -30,
+           -30,   5,  15,  20,  20,  15,   5, -30,
+           -30,   0,  15,  20,  20,  15,   0, -30,
+           -30,   5,  10,  15,  15,  10,   5, -30,
+           -40, -20,   0,   5,   5,   0, -20, -40,
+           -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP = {
+           -20, -10, -10, -10, -10, -10, -10, -20,
+           -10,   0,   0,   0,   0,   0,   0, -10,
+           -10,   0,   5,  10,  10,   5,   0, -10,
+           -10,   5,   5,  10,  10,   5,   5, -10,
+           -10,   0,  10,  10,  10,  10,   0, -10,
+           -10,  10,  10,  10,  10,  10,  10, -10,
+           -10,   5,   0,   0,   0,   0,   5, -10,
+           -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK = {
+             0,   0,   0,   0,   0,   0,   0,   0,
+             5,  10,  10,  10,  10,  10,  10,   5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+             0,   0,   0,   5,   5,   0,   0,   0
+    };
+    private static final int[] QUEEN = {
+           -20, -10, -10,  -5,  -5, -10, -10, -20,
+           -10,   0,   0,   0,   0,   0,   0, -10,
+           -10,   0,   5,   5,   5,   5,   0, -10,
+            -5,   0,   5,   5,   5,   5,   0,  -5,
+             0,   0,   5,   5,   5,   5,   0,  -5,
+           -10,   5,   5,   5,   5,   5,   0, -10,
+           -10,   0,   5,   0,   0,   0,   0, -10,
+           -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+    private static final int[] KING = {
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -20, -30, -30, -40, -40, -30, -30, -20,
+           -10, -20, -20, -20, -20, -20, -20, -10,
+            20,  20,   0,   0,   0,   0,  20,  20,
+            20,  30,  10,   0,   0,  10,  30,  20
+    };
+    private static final int[] KING_ENDGAME = {
+           -50, -40, -30, -20, -20, -30, -40, -50,
+           -30, -20, -10,   0,   0, -10, -20, -30,
+           -30, -10,  20,  30,  30,  20, -10, -30,
+           -30, -10,  30,  40,  40,  30, -10, -30,
+           -30, -10,  30,  40,  40,  30, -10, -30,
+           -30, -10,  20,  30,  30,  20, -10, -30,
+           -30, -30,   0,   0,   0,   0, -30, -30,
+           -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    static {
+        int[][] midgame = {PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING,
+                reach(JumpAttacks.LEAPER, 8), reach(JumpAttacks.NIGHTRIDER, 5)};
+        int[][] endgame = {PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME,
+                reach(JumpAttacks.LEAPER, 8), reach(JumpAttacks.NIGHTRIDER, 5)};
+        for (Type type : Type.values()) {
+            int t = type.ordinal();
+            int white = Board.pieceCode(Board.WHITE_SIDE, type);
+            int black = Board.pieceCode(Board.BLACK_SIDE, type);
+            for (int square = 0; square < Board.SQUARES; square++) {
+                MIDGAME[white][square] = MIDGAME_VALUES[t] + midgame[t][square];
+                ENDGAME[white][square] = ENDGAME_VALUES[t] + endgame[t][square];
+                MIDGAME[black][square ^ 56] = -MIDGAME[white][square];
+                ENDGAME[black][square ^ 56] = -ENDGAME[white][square];
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * reach scores each square by how many squares a jumping piece reaches from it,
+     * compared with the most it can reach anywhere on the board
+     * @param table the jumping piece's attack table
+     * @param weight the centipawns per square reached
+     * @return the piece-square table
+     */
+    private static int[] reach(long[] table, int weight) {
+        int most = 0;
+        for (long attacks : table) {
+            most = Math.max(most, Long.bitCount(attacks));
+        }
+        int[] values = new int[Board.SQUARES];
+        for (int square = 0; square < Board.SQUARES; square++) {
+            values[square] = weight * (Long.bitCount(table[square]) - most / 2);
+        }
+        return values;
+    }
+
+    /**
+     * taper blends a middlegame and an endgame score by how much material is left
+     * @param midgame the middlegame score
+     * @param endgame the endgame score
+     * @param phase the sum of PHASE over the pieces on the board
+     * @return the blended score
+     */
+    public static int taper(int midgame, int endgame, int phase) {
+        phase = Math.min(phase, MAX_PHASE);
+        return (midgame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE;
+    }
+}
@@ -4,21 +4,22 @@ import Pieces.Piece;
 
 /**
  * Tile has the row and column coordinate that indicates its position on the board.
- * It has a boolean tile_Is_Occupied that indicates whether or not the tile is occupied.
+ * A tile does not store its own piece; it is a view of one square of the board's
+ * bitboard state, so reads and writes through a tile go straight to the board.
  */
 public class Tile {
 
-    private int tile_row;
-    private int tile_col;
-    private boolean tile_Is_Occupied;
-    private Piece piece;
+    private final Board board;
+    private final int tile_row;
+    private final int tile_col;
+    private final int square;
     private String color;
 
-    public Tile(int x, int y) {
+    public Tile(Board board, int x, int y) {
+        this.board = board;
         this.tile_row = x;
         this.tile_col = y;
-        this.tile_Is_Occupied = false;
-        this.piece = null;
+        this.square = Board.square(x, y);
     }
 
     /**
@@ -42,17 +43,14 @@ public class Tile {
      * @param piece the piece to set on the tile
      */
     public void setPiece(Piece piece) {
-        this.piece = piece;
-        this.setOccupation();
-        piece.setLocation(tile_row, tile_col);
+        board.placePiece(square, piece);
     }
 
     /**
      * removePiece removes the piece from the tile
      */
     public void removePiece() {
-        this.piece = null;
-        this.freeOccupation();
+        board.clearSquare(square);
     }
 
     /**
@@ -60,7 +58,7 @@ public class Tile {
      * @return the piece, or null if there is no piece
      */
     public Piece getPiece() {
-        return this.piece;
+        return board.getPieceAt(square);
     }
 
     /**
@@ -80,25 +78,26 @@ public class Tile {
     }
 
     /**
-     * getOccupation returns whether or not the tile is occupied
-     * @return true if the tile is occupied, false if the tile is available
+     * getSquare returns the 0-63 square index of the tile (row * 8 + column)
+     * @return the square index of the tile
      */
-    public boolean getOccupation() {
-        return this.tile_Is_Occupied;
+    public int getSquare() {
+        return this.square;
     }
 
     /**
-     * setOccupation sets the tile to be occupied
+     * getOccupation returns whether or not the tile is occupied
+     * @return true if the tile is occupied, false if the tile is available
      */
-    private void setOccupation() {
-        this.tile_Is_Occupied = true;
+    public boolean getOccupation() {
+        return board.isOccupied(square);
     }
 
     /**
      * freeOccupation sets the tile to be available
      */
     public void freeOccupation() {
-        this.tile_Is_Occupied = false;
+        board.clearSquare(square);
     }
 
 }
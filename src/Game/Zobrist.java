@@ -0,0 +1,67 @@
+package Game;
+
+/**
+ * Zobrist holds the random keys that make up a position's hash.
+ * There is one key per piece code (every Type of either color, LEAPER and NIGHTRIDER included)
+ * and square, plus one for black to move. A position's hash is the XOR of the keys of
+ * everything on it, so a move only has to XOR the keys that changed.
+ * The keys come from a fixed seed, so hashes are the same from run to run.
+ */
+public final class Zobrist {
+
+    private static final int CODES = 17;
+
+    public static final long[][] PIECE_SQUARE = new long[CODES][Board.SQUARES];
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int code = 1; code < CODES; code++) {
+            for (int square = 0; square < Board.SQUARES; square++) {
+                seed = next(seed);
+                PIECE_SQUARE[code][square] = mix(seed);
+            }
+        }
+        seed = next(seed);
+        BLACK_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * next steps a splitmix64 sequence
+     */
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * mix scrambles a splitmix64 state into a key
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * compute builds the hash of a board from scratch; the board keeps its own hash up to date,
+     * so this is only needed to check it
+     * @param board the board to hash
+     * @return the hash of the position and side to move
+     */
+    public static long compute(Board board) {
+        long hash = 0L;
+        for (int square = 0; square < Board.SQUARES; square++) {
+            int code = board.getPieceCode(square);
+            if (code != Board.EMPTY) {
+                hash ^= PIECE_SQUARE[code][square];
+            }
+        }
+        if (board.getSideToMove() == Board.BLACK_SIDE) {
+            hash ^= BLACK_TO_MOVE;
+        }
+        return hash;
+    }
+}
@@ -32,12 +32,6 @@ public class Gui {
     private Tile sourceTile;
     private Piece movedPiece;
 
-    private Piece capturedPiece = null;
-    private int prevRow = -1;
-    private int prevCol = -1;
-    private int prevTargetRow = -1;
-    private int prevTargetCol = -1;
-
     private boolean endFlag;
     private int whiteWins = 0;
     private int blackWins = 0;
@@ -186,24 +180,13 @@ public class Gui {
     }
 
     /**
-     * Players are allowed to undo their most recent move.
-     * Once their opponent moves, they can no longer undo.
+     * Players are allowed to undo moves, one at a time, back to the start of the game.
+     * The board keeps the undo stack, so captured pieces come back as well.
      */
     public void undoMove() {
-        if (prevRow != -1) {
-            Piece p = chessBoard.getPiece(prevTargetRow, prevTargetCol);
-            chessBoard.getTile(prevRow, prevCol).setPiece(p);
-            chessBoard.getTile(prevTargetRow, prevTargetCol).removePiece();
-            if (capturedPiece != null) {
-                chessBoard.getTile(prevTargetRow, prevTargetCol).setPiece(capturedPiece);
-            }
-            chessBoard.updateCurrentPlayer();
+        if (chessBoard.canUndo()) {
+            chessBoard.unmakeMove();
             setTextStatus();
-            prevRow = -1;
-            prevCol = -1;
-            prevTargetRow = -1;
-            prevTargetCol = -1;
-            capturedPiece = null;
         }
 
         SwingUtilities.invokeLater(new Runnable() {
@@ -436,34 +419,71 @@ public class Gui {
     }
 
     /**
-     * Checks and updates status of the game
+     * Status is what the text panel shows after a move
      */
-    public void setTextStatus() {
-        if (chessBoard.checkMate(chessBoard, "WHITE", "BLACK")) {
-            textPanel.setWhiteCheckMate();
-            endFlag = true;
-            this.blackWins++;
+    public enum Status {
+        WHITE_CHECKMATE, BLACK_CHECKMATE, STALEMATE, BLACK_CHECK, WHITE_CHECK, BLACK_TURN, WHITE_TURN
+    }
+
+    /**
+     * getStatus decides the status of the game without touching any Swing component
+     * @param board the board to look at
+     * @return the status to show
+     */
+    public static Status getStatus(Board board) {
+        if (board.checkMate(board, "WHITE", "BLACK")) {
+            return Status.WHITE_CHECKMATE;
         }
-        else if (chessBoard.checkMate(chessBoard, "BLACK", "WHITE")) {
-            textPanel.setBlackCheckMate();
-            endFlag = true;
-            this.whiteWins++;
+        else if (board.checkMate(board, "BLACK", "WHITE")) {
+            return Status.BLACK_CHECKMATE;
         }
-        else if (chessBoard.staleMate(chessBoard, "WHITE", "BLACK")) {
-            textPanel.setStaleMate();
-            endFlag = true;
+        else if (board.staleMate(board, "WHITE", "BLACK")) {
+            return Status.STALEMATE;
         }
-        else if (chessBoard.check(chessBoard, "BLACK", "WHITE")) {
-            textPanel.setBlackCheck();
+        else if (board.check(board, "BLACK", "WHITE")) {
+            return Status.BLACK_CHECK;
         }
-        else if (chessBoard.check(chessBoard, "WHITE", "BLACK")) {
-            textPanel.setWhiteCheck();
+        else if (board.check(board, "WHITE", "BLACK")) {
+            return Status.WHITE_CHECK;
         }
-        else if (chessBoard.getCurrentPlayer().getPlayerColor().equals("BLACK")) {
-            textPanel.setBlackTurn();
+        else if (board.getCurrentPlayer().getPlayerColor().equals("BLACK")) {
+            return Status.BLACK_TURN;
         }
         else {
-            textPanel.setWhiteTurn();
+            return Status.WHITE_TURN;
+        }
+    }
+
+    /**
+     * Checks and updates status of the game
+     */
+    public void setTextStatus() {
+        switch (getStatus(chessBoard)) {
+            case WHITE_CHECKMATE:
+                textPanel.setWhiteCheckMate();
+                endFlag = true;
+                this.blackWins++;
+                break;
+            case BLACK_CHECKMATE:
+                textPanel.setBlackCheckMate();
+                endFlag = true;
+                this.whiteWins++;
+                break;
+            case STALEMATE:
+                textPanel.setStaleMate();
+                endFlag = true;
+                break;
+            case BLACK_CHECK:
+                textPanel.setBlackCheck();
+                break;
+            case WHITE_CHECK:
+                textPanel.setWhiteCheck();
+                break;
+            case BLACK_TURN:
+                textPanel.setBlackTurn();
+                break;
+            default:
+                textPanel.setWhiteTurn();
         }
     }
 
@@ -496,8 +516,6 @@ public class Gui {
                                 int col = tileId % board_length;
                                 sourceTile = chessBoard.getTile(row, col);
                                 movedPiece = sourceTile.getPiece();
-                                prevRow = row;
-                                prevCol = col;
                                 if (movedPiece == null) {
                                     sourceTile = null;
                                 } else {
@@ -509,13 +527,9 @@ public class Gui {
                                 highlightCol = -1;
                                 int row = tileId / board_length;
                                 int col = tileId % board_length;
-                                prevTargetRow = row;
-                                prevTargetCol = col;
-                                capturedPiece = chessBoard.getPiece(row,col);
                                 if (movedPiece.getRow() != row || movedPiece.getCol() != col) {
                                     chessBoard.getCurrentPlayer().movePiece(chessBoard, movedPiece, row, col);
                                     if (movedPiece.getRow() == row && movedPiece.getCol() == col) {
-                                        chessBoard.updateCurrentPlayer();
                                         setTextStatus();
                                     } else {
                                         if (chessBoard.getCurrentPlayer().getPlayerColor().equals("BLACK")) {
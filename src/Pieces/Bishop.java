@@ -1,12 +1,9 @@
 package Pieces;
 
 import Game.*;
-import java.util.ArrayList;
-import java.util.List;
 
 public class Bishop extends Piece{
     private Type type;
-    private int maxMoves = 8;
 
     public Bishop(String color) {
         type = Type.BISHOP;
@@ -45,79 +42,26 @@ public class Bishop extends Piece{
      * @return true if the move is valid, false otherwise
      */
     public boolean isAValidMove(Board board, int start_row, int start_col, int end_row, int end_col) {
-        boolean diagonal = isDiagonalMovement(start_row, start_col, end_row, end_col);
-        boolean validPath = verifyPath(board, start_row, start_col, end_row, end_col);
-
-        if (!diagonal || !validPath) {
-            return false;
-        }
-        if (targetIsAlly(board, end_row, end_col)){
-            return false;
-        }
-        return true;
+        long attacks = SlidingAttacks.bishop(Board.square(start_row, start_col), board.getOccupied());
+        return isAValidTarget(board, attacks, end_row, end_col);
     }
 
     /**
-     * checks to see if the bishop is moving in a diagonal path
+     * verifyPath checks that the target lies on one of the bishop's lines and that
+     * nothing stands between it and the bishop
+     * @param board the Game board
      * @param start_row the row position of the bishop
      * @param start_col the column position of the bishop
      * @param end_row the target row position
      * @param end_col the target column position
-     * @return true if valid diagonal path, false otherwise
-     */
-    public boolean isDiagonalMovement(int start_row, int start_col, int end_row, int end_col) {
-        int verticalDiff = Math.abs(start_row-end_row);
-        int horizontalDiff = Math.abs(start_col-end_col);
-        return(verticalDiff == horizontalDiff && verticalDiff != 0);
-    }
-
-    /**
-     * verifyPath checks if the path is a valid path for the piece to move
-     * @param board the Game board
-     * @param start_row the current row of the piece
-     * @param start_col the current column of the piece
-     * @param end_row the target row of the piece
-     * @param end_col the target column of the piece
      * @return true if valid path, false otherwise
      */
     public boolean verifyPath(Board board, int start_row, int start_col, int end_row, int end_col){
         if (outOfBounds(end_row, end_col, board.getBoardSize(), board.getBoardSize())) {
             return false;
         }
-        int shift = 1;
-
-        int top = start_row < end_row ? start_row : end_row;
-        int bottom = start_row < end_row ? end_row : start_row;
-
-        int horizontalStart = 0;
-        int horizontalEnd = 0;
-        if (top == start_row) {
-            horizontalStart = start_col;
-            horizontalEnd = end_col;
-        }
-        else {
-            horizontalStart = end_col;
-            horizontalEnd = start_col;
-        }
-
-        if (horizontalEnd < horizontalStart){
-            shift = -1;
-        }
-
-        int colIndex = horizontalStart;
-        for (int i = top; i < bottom; i++) {
-            if (i != top) {
-                Tile tile = board.getTile(i,colIndex);
-                if (tile.getOccupation()) {
-                    return false;
-                }
-            }
-            colIndex += shift;
-            if (colIndex < 0 || colIndex >= board.getBoardSize()) {
-                return false;
-            }
-        }
-        return true;
+        long attacks = SlidingAttacks.bishop(Board.square(start_row, start_col), board.getOccupied());
+        return (attacks & (1L << Board.square(end_row, end_col))) != 0;
     }
 
     /**
@@ -126,26 +70,7 @@ public class Bishop extends Piece{
      * @return true if the bishop can move, false otherwise
      */
     public boolean canMove(Board board) {
-        int row = this.getRow();
-        int col = this.getCol();
-        List<Pair> coord = new ArrayList<Pair>();
-        coord.add(new Pair(row-1, col-1));
-        coord.add(new Pair(row-1, col+1));
-        coord.add(new Pair(row+1, col-1));
-        coord.add(new Pair(row+1, col+1));
-
-        for(int i=0; i < coord.size(); i++) {
-            Pair target = coord.get(i);
-            if (!this.isAValidMove(board, row, col, target.getRow(), target.getCol())) {
-                coord.remove(target);
-                i--;
-            }
-        }
-
-        if (coord.size() > 0) {
-            return true;
-        }
-        return false;
+        return canReach(board, SlidingAttacks.bishop(Board.square(this.row, this.col), board.getOccupied()));
     }
 
     /**
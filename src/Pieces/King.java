@@ -1,15 +1,12 @@
 package Pieces;
 
 import Game.Board;
+import Game.JumpAttacks;
 import Game.Tile;
 import Game.Type;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class King extends Piece {
     private Type type;
-    private int maxMoves = 1;
 
     public King(String color) {
         type = Type.KING;
@@ -38,26 +35,6 @@ public class King extends Piece {
         }
     }
 
-    /**
-     * verifyMove determines if the target position is a valid move
-     * @param start_row the row position of the piece
-     * @param start_col the column position of the piece
-     * @param end_row the target row position
-     * @param end_col the target column position
-     * @return true if valid move, false otherwise
-     */
-    public boolean verifyMove(int start_row, int start_col, int end_row, int end_col) {
-        int verticalDiff = Math.abs(start_row-end_row);
-        int horizontalDiff = Math.abs(start_col-end_col);
-        if (verticalDiff > maxMoves || horizontalDiff > maxMoves) {
-            return false;
-        }
-        if (verticalDiff == 0 && horizontalDiff == 0) {
-            return false;
-        }
-        return true;
-    }
-
     /**
      * verifyPath checks for potential pieces blocking the movement of the piece.
      * The King piece is special since it only moves one space in any direction.
@@ -83,19 +60,7 @@ public class King extends Piece {
      * @return true if valid move, false otherwise
      */
     public boolean isAValidMove(Board board, int start_row, int start_col, int end_row, int end_col) {
-        if (outOfBounds(end_row, end_col, board.getBoardSize(), board.getBoardSize())) {
-            return false;
-        }
-
-        if (!verifyMove(start_row, start_col, end_row, end_col)) {
-            return false;
-        }
-
-        if (targetIsAlly(board, end_row, end_col)) {
-            return false;
-        }
-
-        return true;
+        return isAValidJump(board, JumpAttacks.KING, start_row, start_col, end_row, end_col);
     }
 
     /**
@@ -104,30 +69,7 @@ public class King extends Piece {
      * @return true if the king can move, false otherwise
      */
     public boolean canMove(Board board) {
-        int row = this.getRow();
-        int col = this.getCol();
-        List<Pair> coord = new ArrayList<Pair>();
-        coord.add(new Pair(row-1, col-1));
-        coord.add(new Pair(row-1, col));
-        coord.add(new Pair(row-1, col+1));
-        coord.add(new Pair(row, col-1));
-        coord.add(new Pair(row, col+1));
-        coord.add(new Pair(row+1, col-1));
-        coord.add(new Pair(row+1, col));
-        coord.add(new Pair(row+1, col+1));
-
-        for(int i=0; i < coord.size(); i++) {
-            Pair target = coord.get(i);
-            if (!this.isAValidMove(board, row, col, target.getRow(), target.getCol())) {
-                coord.remove(target);
-                i--;
-            }
-        }
-
-        if (coord.size() > 0) {
-            return true;
-        }
-        return false;
+        return canJump(board, JumpAttacks.KING);
     }
 
     /**
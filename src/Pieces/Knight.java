@@ -1,20 +1,15 @@
 package Pieces;
 import Game.*;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Knight extends Piece {
     private Type type;
-    private int[] moves = new int[2];
 
     /**
      * A knight can travel 1 space one way and 2 spaces another way.
+     * Its targets come from the precomputed JumpAttacks.KNIGHT table.
      * @param color determines the color of the piece.
      */
     public Knight(String color) {
-        moves[0] = 1;
-        moves[1] = 2;
         type = Type.KNIGHT;
         this.color = color;
     }
@@ -51,46 +46,7 @@ public class Knight extends Piece {
      * @return true if the move is valid, false otherwise
      */
     public boolean isAValidMove(Board board, int start_row, int start_col, int end_row, int end_col) {
-        if (outOfBounds(end_row, end_col, board.getBoardSize(), board.getBoardSize())) {
-            return false;
-        }
-        boolean validRow = validRowMove(start_row, end_row);
-        boolean validCol = validColMove(start_col, end_col);
-        boolean validMove = (Math.abs(start_row - end_row) != Math.abs(start_col - end_col));
-        if (!validRow || !validCol || !validMove) {
-            return false;
-        }
-        if (targetIsAlly(board, end_row, end_col)) {
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * validRowMove verifies that the piece is moving within its bounds horizontally
-     * @param start_row the row the piece is in
-     * @param end_row the target row the piece is moving to
-     * @return true if valid, else otherwise
-     */
-    public boolean validRowMove(int start_row, int end_row) {
-        if (Math.abs(end_row - start_row) > this.moves[1] || Math.abs(end_row - start_row) < this.moves[0]) {
-            return false;
-        }
-        return true;
-    }
-
-    /**
-     * validColMove verifies that the piece is moving within its bounds vertically
-     * @param start_col the column the piece is in
-     * @param end_col the target column the piece is moving to
-     * @return true if valid, else otherwise
-     */
-    public boolean validColMove(int start_col, int end_col) {
-        if (Math.abs(end_col - start_col) > this.moves[1] || Math.abs(end_col - start_col) < this.moves[0]) {
-            return false;
-        }
-        return true;
+        return isAValidJump(board, JumpAttacks.KNIGHT, start_row, start_col, end_row, end_col);
     }
 
     /**
@@ -110,33 +66,10 @@ public class Knight extends Piece {
     /**
      * canMove checks to see if the knight can move at all
      * @param board the game board
-     * @return true if the nightRider can move, false otherwise
+     * @return true if the knight can move, false otherwise
      */
     public boolean canMove(Board board) {
-        int row = this.getRow();
-        int col = this.getCol();
-        List<Pair> coord = new ArrayList<Pair>();
-        coord.add(new Pair(row-1, col-2));
-        coord.add(new Pair(row-1, col+2));
-        coord.add(new Pair(row-2, col-1));
-        coord.add(new Pair(row-2, col+1));
-        coord.add(new Pair(row+1, col-2));
-        coord.add(new Pair(row+1, col+2));
-        coord.add(new Pair(row+2, col-1));
-        coord.add(new Pair(row+2, col+1));
-
-        for(int i=0; i < coord.size(); i++) {
-            Pair target = coord.get(i);
-            if (!this.isAValidMove(board, row, col, target.getRow(), target.getCol())) {
-                coord.remove(target);
-                i--;
-            }
-        }
-
-        if (coord.size() > 0) {
-            return true;
-        }
-        return false;
+        return canJump(board, JumpAttacks.KNIGHT);
     }
 
 
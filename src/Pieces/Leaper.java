@@ -1,14 +1,14 @@
 package Pieces;
 import Game.*;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Leaper extends Piece{
-
-    private final int moves = 2;
     private Type type;
 
+    /**
+     * A Leaper jumps exactly 2 spaces in a straight line.
+     * Its targets come from the precomputed JumpAttacks.LEAPER table.
+     * @param color determines the color of the piece.
+     */
     public Leaper(String color) {
         type = Type.LEAPER;
         this.color = color;
@@ -46,41 +46,7 @@ public class Leaper extends Piece{
      * @return true if the move is valid, false otherwise
      */
     public boolean isAValidMove(Board board, int start_row, int start_col, int end_row, int end_col) {
-        if (outOfBounds(end_row, end_col, board.getBoardSize(), board.getBoardSize())) {
-            return false;
-        }
-        boolean validRow = validRowMove(start_row, end_row);
-        boolean validCol = validColMove(start_col, end_col);
-        boolean validMove = (Math.abs(start_row-end_row) != Math.abs(start_col-end_col));
-        if (!validRow || !validCol || !validMove) {
-            return false;
-        }
-        if (targetIsAlly(board, end_row, end_col)) {
-            return false;
-        }
-        return true;
-    }
-
-    /**
-     * validRowMove verifies that the piece is moving within its bounds horizontally
-     * @param start_row the row the piece is in
-     * @param end_row the target row the piece is moving to
-     * @return true if valid, else otherwise
-     */
-    public boolean validRowMove(int start_row, int end_row) {
-        int diff = Math.abs(end_row - start_row);
-        if (diff != moves && diff != 0) {
-            return false;
-        }
-        return true;
-    }
-
-    public boolean validColMove(int start_col, int end_col) {
-        int diff = Math.abs(end_col - start_col);
-        if (diff != moves && diff != 0) {
-            return false;
-        }
-        return true;
+        return isAValidJump(board, JumpAttacks.LEAPER, start_row, start_col, end_row, end_col);
     }
 
     /**
@@ -97,33 +63,13 @@ public class Leaper extends Piece{
         return true;
     }
 
-
     /**
      * canMove checks to see if the leaper can move at all
      * @param board the game board
-     * @return true if the nightRider can move, false otherwise
+     * @return true if the leaper can move, false otherwise
      */
     public boolean canMove(Board board) {
-        int row = this.getRow();
-        int col = this.getCol();
-        List<Pair> coord = new ArrayList<Pair>();
-        coord.add(new Pair(row-2, col));
-        coord.add(new Pair(row, col-2));
-        coord.add(new Pair(row, col+2));
-        coord.add(new Pair(row+2, col));
-
-        for(int i=0; i < coord.size(); i++) {
-            Pair target = coord.get(i);
-            if (!this.isAValidMove(board, row, col, target.getRow(), target.getCol())) {
-                coord.remove(target);
-                i--;
-            }
-        }
-
-        if (coord.size() > 0) {
-            return true;
-        }
-        return false;
+        return canJump(board, JumpAttacks.LEAPER);
     }
 
     /**
@@ -36,6 +36,22 @@ public class Pawn extends Piece{
         }
     }
 
+    /**
+     * isFirstMove checks if the pawn has not moved yet
+     * @return true if the pawn has not moved, false otherwise
+     */
+    public boolean isFirstMove() {
+        return this.firstMove;
+    }
+
+    /**
+     * setFirstMove restores the first move state, used when a move is taken back
+     * @param firstMove true if the pawn has not moved yet
+     */
+    public void setFirstMove(boolean firstMove) {
+        this.firstMove = firstMove;
+    }
+
     /**
      * Same description as the abstract class Piece.
      * @param board the Game board
@@ -9,6 +9,7 @@ public abstract class Piece {
     protected String color;
     protected int row;
     protected int col;
+    private int listIndex = -1;
 
     class Pair {
         int row;
@@ -73,6 +74,31 @@ public abstract class Piece {
         return this.color;
     }
 
+    /**
+     * getSide returns the side index of the piece
+     * @return Board.WHITE_SIDE or Board.BLACK_SIDE
+     */
+    public int getSide() {
+        return Board.sideOf(this.color);
+    }
+
+    /**
+     * getListIndex returns where the piece sits in its side's piece list on the board
+     * @return the index, or -1 if the piece was never put in a list
+     */
+    public int getListIndex() {
+        return this.listIndex;
+    }
+
+    /**
+     * setListIndex records where the piece sits in its side's piece list, so the board can
+     * take it out without searching the list
+     * @param listIndex the index in the piece list
+     */
+    public void setListIndex(int listIndex) {
+        this.listIndex = listIndex;
+    }
+
     /**
      * setPieceColor sets a piece to a certain color
      * @param pieceColor the desired color to set the piece to
@@ -144,6 +170,59 @@ public abstract class Piece {
         return false;
     }
 
+    /**
+     * isAValidTarget checks a move against a precomputed set of attacked squares,
+     * as returned by JumpAttacks or SlidingAttacks.
+     * @param board the game board
+     * @param attacks the squares the piece attacks from where it stands
+     * @param end_row the target row
+     * @param end_col the target column
+     * @return true if the target is attacked and not held by an ally, false otherwise
+     */
+    protected boolean isAValidTarget(Board board, long attacks, int end_row, int end_col) {
+        if (outOfBounds(end_row, end_col, board.getBoardSize(), board.getBoardSize())) {
+            return false;
+        }
+        long target = 1L << Board.square(end_row, end_col);
+        long allies = board.getColorBitboard(getSide());
+        return (attacks & target & ~allies) != 0;
+    }
+
+    /**
+     * isAValidJump checks a move for pieces that hop to a fixed set of squares,
+     * using one of the JumpAttacks tables.
+     * @param board the game board
+     * @param attacks the attack table of the piece
+     * @param start_row the row the piece is on
+     * @param start_col the column the piece is on
+     * @param end_row the target row
+     * @param end_col the target column
+     * @return true if the target is reachable and not held by an ally, false otherwise
+     */
+    protected boolean isAValidJump(Board board, long[] attacks, int start_row, int start_col, int end_row, int end_col) {
+        return isAValidTarget(board, attacks[Board.square(start_row, start_col)], end_row, end_col);
+    }
+
+    /**
+     * canReach checks if any of the attacked squares is free of allies
+     * @param board the game board
+     * @param attacks the squares the piece attacks from where it stands
+     * @return true if the piece has somewhere to move
+     */
+    protected boolean canReach(Board board, long attacks) {
+        return (attacks & ~board.getColorBitboard(getSide())) != 0;
+    }
+
+    /**
+     * canJump checks if a hopping piece has any square to move to
+     * @param board the game board
+     * @param attacks the attack table of the piece
+     * @return true if at least one target is not held by an ally
+     */
+    protected boolean canJump(Board board, long[] attacks) {
+        return canReach(board, attacks[Board.square(this.row, this.col)]);
+    }
+
     /**
      * canMove determines if a piece can move at all.
      * @param board the game board
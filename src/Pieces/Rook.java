@@ -1,15 +1,12 @@
 package Pieces;
 
 import Game.Board;
+import Game.SlidingAttacks;
 import Game.Tile;
 import Game.Type;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Rook extends Piece {
     private Type type;
-    private int maxMoves = 8;
 
     public Rook(String color) {
         type = Type.ROOK;
@@ -48,45 +45,16 @@ public class Rook extends Piece {
      * @return true if the move is valid, false otherwise
      */
     public boolean isAValidMove(Board board, int start_row, int start_col, int end_row, int end_col) {
-        boolean linear = isLinearMovement(start_row, start_col, end_row, end_col);
-        boolean validPath = verifyPath(board, start_row, start_col, end_row, end_col);
-
-        if (!linear) {
-            return false;
-        }
-
-        if (targetIsAlly(board, end_row, end_col)){
-            return false;
-        }
-
-        if (!validPath) {
-            return false;
-        }
-        return true;
+        long attacks = SlidingAttacks.rook(Board.square(start_row, start_col), board.getOccupied());
+        return isAValidTarget(board, attacks, end_row, end_col);
     }
 
     /**
-     * checks if the move is a valid linear move
-     * @param start_row the row position of the piece
-     * @param start_col the column position of the piece
-     * @param end_row the target row position
-     * @param end_col the target column position
-     * @return true if valid linear move, false otherwise
-     */
-    public boolean isLinearMovement(int start_row, int start_col, int end_row, int end_col) {
-        boolean verticalPath = (Math.abs(start_row-end_row) != 0);
-        boolean horizontalPath = (Math.abs(start_col-end_col) != 0);
-        if ((verticalPath && horizontalPath) || (!verticalPath && !horizontalPath)) {
-            return false;
-        }
-        return true;
-    }
-
-    /**
-     * verifyPath checks if the piece can move to the target position
+     * verifyPath checks that the target lies on one of the rook's lines and that
+     * nothing stands between it and the rook
      * @param board the Game board
-     * @param start_row the row position of the queen
-     * @param start_col the column position of the queen
+     * @param start_row the row position of the rook
+     * @param start_col the column position of the rook
      * @param end_row the target row position
      * @param end_col the target column position
      * @return true if valid path, false otherwise
@@ -95,23 +63,8 @@ public class Rook extends Piece {
         if (outOfBounds(end_row, end_col, board.getBoardSize(), board.getBoardSize())) {
             return false;
         }
-
-        int left = start_col < end_col ? start_col : end_col;
-        int right = start_col < end_col ? end_col : start_col;
-        int up = start_row < end_row ? start_row : end_row;
-        int down = start_row < end_row ? end_row : start_row;
-
-        for(int i = up; i <= down; i++){
-            for(int j = left; j <= right; j++){
-                if ((i != up || j != left) && (i != down || j != right)) {
-                    Tile tile = board.getTile(i, j);
-                    if (tile.getOccupation()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        long attacks = SlidingAttacks.rook(Board.square(start_row, start_col), board.getOccupied());
+        return (attacks & (1L << Board.square(end_row, end_col))) != 0;
     }
 
     /**
@@ -120,28 +73,7 @@ public class Rook extends Piece {
      * @return true if the rook can move, false otherwise
      */
     public boolean canMove(Board board) {
-        int row = this.getRow();
-        int col = this.getCol();
-        List<Pair> coord = new ArrayList<Pair>();
-
-        coord.add(new Pair(row-1, col));
-        coord.add(new Pair(row,col-1));
-        coord.add(new Pair(row, col+1));
-        coord.add(new Pair(row+1, col));
-
-        for(int i=0; i < coord.size(); i++) {
-            Pair target = coord.get(i);
-            if (!this.isAValidMove(board, row, col, target.getRow(), target.getCol())) {
-                coord.remove(target);
-                i--;
-            }
-        }
-
-        if (coord.size() > 0) {
-            return true;
-        }
-
-        return false;
+        return canReach(board, SlidingAttacks.rook(Board.square(this.row, this.col), board.getOccupied()));
     }
 
     /**
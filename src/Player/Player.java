@@ -18,9 +18,21 @@ public class Player {
         return this.color;
     }
 
+    /**
+     * movePiece plays the player's piece to the target tile if the move is valid.
+     * The move goes through Board.makeMove, so it can be undone and the turn passes to the opponent.
+     * @param board the game board
+     * @param piece the piece to move
+     * @param end_row the target row
+     * @param end_col the target column
+     */
     public void movePiece(Board board, Piece piece, int end_row, int end_col) {
         if (piece != null && piece.getPieceColor().equals(this.color)) {
-            piece.movePiece(board, piece.getRow(), piece.getCol(), end_row, end_col);
+            int row = piece.getRow();
+            int col = piece.getCol();
+            if (piece.isAValidMove(board, row, col, end_row, end_col)) {
+                board.makeMove(board.createMove(Board.square(row, col), Board.square(end_row, end_col)));
+            }
         }
     }
 
@@ -0,0 +1,113 @@
+package Server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * BinaryProtocol is the frame layout BinaryServer speaks. Every request is one opcode byte followed
+ * by a fixed number of bytes for that opcode, and gets exactly one reply starting with the same opcode
+ * and a GameSession.Validation ordinal. Numbers are big-endian, games are 4-byte ids and squares are
+ * one byte, row * 8 + column with row 0 being black's back rank.
+ * <pre>
+ * NEW   variant(0 chess, 1 special)   -> NEW   validation game
+ * JOIN  game side(0 white, 1 black)   -> JOIN  validation
+ * MOVE  game from to                  -> MOVE  validation result check
+ * CLOSE game                          -> CLOSE validation
+ * </pre>
+ * A MOVE reply carries the validation of the move (OK, or why Piece.isAValidMove or the king's
+ * safety turned it down), the GameSession.Result ordinal after it, and 1 if the side to move is in check.
+ * A request for a game that was evicted and cannot be read back from disk is answered with
+ * UNAVAILABLE and zeros for the rest of the reply.
+ * Clients may send many requests without waiting; replies come back in the same order.
+ */
+public final class BinaryProtocol {
+
+    public static final byte NEW = 1;
+    public static final byte JOIN = 2;
+    public static final byte MOVE = 3;
+    public static final byte CLOSE = 4;
+
+    /**
+     * The longest request and reply, for sizing buffers
+     */
+    public static final int MAX_REQUEST = 7;
+    public static final int MAX_REPLY = 6;
+
+    private static final GameSession.Validation[] VALIDATIONS = GameSession.Validation.values();
+    private static final GameSession.Result[] RESULTS = GameSession.Result.values();
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * requestLength returns the length of a request, opcode included
+     * @param opcode the first byte of the request
+     * @return the length in bytes, or -1 if the opcode is unknown
+     */
+    public static int requestLength(byte opcode) {
+        switch (opcode) {
+            case NEW:
+                return 2;
+            case JOIN:
+                return 6;
+            case MOVE:
+                return 7;
+            case CLOSE:
+                return 5;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * replyLength returns the length of a reply, opcode included
+     * @param opcode the first byte of the reply
+     * @return the length in bytes, or -1 if the opcode is unknown
+     */
+    public static int replyLength(byte opcode) {
+        switch (opcode) {
+            case NEW:
+                return 6;
+            case JOIN:
+            case CLOSE:
+                return 2;
+            case MOVE:
+                return 4;
+            default:
+                return -1;
+        }
+    }
+
+    public static void putNew(ByteBuffer buffer, boolean special) {
+        buffer.put(NEW).put((byte) (special ? 1 : 0));
+    }
+
+    public static void putJoin(ByteBuffer buffer, int game, int side) {
+        buffer.put(JOIN).putInt(game).put((byte) side);
+    }
+
+    public static void putMove(ByteBuffer buffer, int game, int from, int to) {
+        buffer.put(MOVE).putInt(game).put((byte) from).put((byte) to);
+    }
+
+    public static void putClose(ByteBuffer buffer, int game) {
+        buffer.put(CLOSE).putInt(game);
+    }
+
+    /**
+     * validation decodes the validation byte of a reply
+     * @param code the second byte of the reply
+     * @return the validation
+     */
+    public static GameSession.Validation validation(byte code) {
+        return VALIDATIONS[code];
+    }
+
+    /**
+     * result decodes the result byte of a MOVE reply
+     * @param code the third byte of the reply
+     * @return the result
+     */
+    public static GameSession.Result result(byte code) {
+        return RESULTS[code];
+    }
+}
@@ -0,0 +1,449 @@
+package Server;
+
+import Game.Board;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BinaryServer serves the games of a GameServer over BinaryProtocol, with one thread and a
+ * Selector for every connection instead of a thread per connection.
+ *
+ * Clients may pipeline: whatever arrives in one read is taken apart into as many whole requests
+ * as it holds, the replies are collected in the connection's output buffer, and the whole batch
+ * goes out in one write. A request cut off at the end of a read waits in the input buffer for
+ * the rest. When a client does not read its replies and the output buffer fills up, the server
+ * stops reading from it until the replies have been written.
+ *
+ * The selector thread never touches the disk. Games the SessionStore evicts are written by its own
+ * background thread, and a request for a game that is not in memory is parked: a loader thread reads
+ * the game back, queues the connection and wakes the selector, which answers the request and the ones
+ * behind it. Until then the connection's later requests wait, so replies keep their order, while
+ * every other connection is served as usual.
+ */
+public class BinaryServer {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int LOADERS = 2;
+
+    private final GameServer games;
+    private final ConcurrentLinkedQueue<SelectionKey> loaded = new ConcurrentLinkedQueue<SelectionKey>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private ExecutorService loader;
+    private volatile boolean running;
+    private volatile long requests;
+
+    /**
+     * Constructor BinaryServer serves the games of a GameServer, so text and binary clients share them
+     * @param games the server the games are kept by
+     */
+    public BinaryServer(GameServer games) {
+        this.games = games;
+    }
+
+    /**
+     * Connection is the state of one client: its partly read requests, unwritten replies, and the
+     * game being read back for its first waiting request. waiting and ready belong to the selector
+     * thread; game and failure are set by a loader thread before it queues the connection's key,
+     * and read by the selector thread after taking the key off the queue.
+     */
+    private static class Connection {
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final GameServer.Client client = new GameServer.Client();
+        private boolean waiting;
+        private boolean ready;
+        private GameSession game;
+        private RuntimeException failure;
+    }
+
+    /**
+     * start listens for clients on a port
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public void start(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        loader = Executors.newFixedThreadPool(LOADERS, new ThreadFactory() {
+            private final AtomicLong count = new AtomicLong();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "binary-loader-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "binary-server");
+        thread.start();
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                selector.select();
+            }
+            catch (IOException e) {
+                System.err.println("select failed: " + e.getMessage());
+                return;
+            }
+            SelectionKey resumed;
+            while ((resumed = loaded.poll()) != null) {
+                resume(resumed);
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (key.isAcceptable()) {
+                        accept();
+                    }
+                    else if (key.isReadable()) {
+                        read(key);
+                    }
+                    else if (key.isWritable()) {
+                        write(key);
+                    }
+                }
+                catch (IOException e) {
+                    disconnect(key);
+                }
+                catch (RuntimeException e) {
+                    System.err.println("dropping a connection: " + e);
+                    disconnect(key);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(connection.in) < 0) {
+            disconnect(key);
+            return;
+        }
+        serve(key);
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        serve(key);
+    }
+
+    /**
+     * resume answers the request whose game a loader has read back, and the requests after it
+     */
+    private void resume(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        connection.waiting = false;
+        connection.ready = true;
+        if (!key.isValid()) {
+            forget(connection);
+            return;
+        }
+        try {
+            serve(key);
+        }
+        catch (IOException e) {
+            disconnect(key);
+        }
+        catch (RuntimeException e) {
+            System.err.println("dropping a connection: " + e);
+            disconnect(key);
+        }
+    }
+
+    /**
+     * park hands a request for a game that is not in memory to a loader thread
+     */
+    private void park(final SelectionKey key, final Connection connection, final long id) {
+        connection.waiting = true;
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    connection.game = games.acquireGame(id);
+                }
+                catch (RuntimeException e) {
+                    connection.failure = e;
+                }
+                loaded.add(key);
+                selector.wakeup();
+            }
+        });
+    }
+
+    /**
+     * forget gives back a game read back for a connection that will not use it
+     */
+    private void forget(Connection connection) {
+        if (connection.ready) {
+            games.releaseGame(connection.game);
+            connection.game = null;
+            connection.failure = null;
+            connection.ready = false;
+        }
+    }
+
+    /**
+     * serve answers the requests read so far and writes the replies. Requests left over because
+     * the output buffer was full are answered as soon as the replies before them have gone out.
+     */
+    private void serve(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        boolean more = true;
+        while (more) {
+            boolean full = process(key);
+            flush(key);
+            more = full && connection.out.position() == 0;
+        }
+    }
+
+    /**
+     * flush writes the batch of replies and reads on once they are all out;
+     * otherwise it waits for the channel to take more
+     */
+    private void flush(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer out = connection.out;
+        out.flip();
+        ((SocketChannel) key.channel()).write(out);
+        out.compact();
+        if (out.position() > 0) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+        else {
+            key.interestOps(connection.waiting ? 0 : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * process answers every whole request in the input buffer, as long as the replies fit
+     * and no request is waiting for its game
+     * @return true if it stopped because the output buffer was full
+     */
+    private boolean process(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        if (connection.waiting) {
+            return false;
+        }
+        ByteBuffer in = connection.in;
+        ByteBuffer out = connection.out;
+        in.flip();
+        long handled = 0;
+        boolean full = false;
+        while (in.hasRemaining()) {
+            if (out.remaining() < BinaryProtocol.MAX_REPLY) {
+                full = true;
+                break;
+            }
+            byte opcode = in.get(in.position());
+            int length = BinaryProtocol.requestLength(opcode);
+            if (length < 0) {
+                throw new IOException("unknown opcode " + opcode);
+            }
+            if (in.remaining() < length) {
+                break;
+            }
+            if (!handle(key, connection, opcode)) {
+                break;
+            }
+            handled++;
+        }
+        in.compact();
+        requests += handled;
+        return full;
+    }
+
+    /**
+     * handle answers the whole request at the head of the input buffer. A request for a game that
+     * is not in memory is left in the buffer and parked until the game has been read back.
+     * @return false if the request was parked
+     */
+    private boolean handle(SelectionKey key, Connection connection, byte opcode) {
+        ByteBuffer in = connection.in;
+        ByteBuffer out = connection.out;
+        if (opcode == BinaryProtocol.NEW) {
+            in.get();
+            boolean special = in.get() == 1;
+            GameSession game = games.newGame(special ? Board.SPECIAL_START_POSITION : Board.START_POSITION);
+            out.put(opcode).put((byte) GameSession.Validation.OK.ordinal()).putInt((int) game.getId());
+            return true;
+        }
+        GameSession game;
+        if (connection.ready) {
+            game = connection.game;
+            RuntimeException failure = connection.failure;
+            connection.ready = false;
+            connection.game = null;
+            connection.failure = null;
+            if (failure != null) {
+                System.err.println(failure.getMessage());
+                in.get();
+                in.getInt();
+                out.put(opcode);
+                unavailable(opcode, in, out);
+                return true;
+            }
+        }
+        else {
+            int id = in.getInt(in.position() + 1);
+            game = games.acquireGameIfResident(id);
+            if (game == null) {
+                park(key, connection, id);
+                return false;
+            }
+        }
+        in.get();
+        in.getInt();
+        out.put(opcode);
+        try {
+            answer(opcode, game, in, out, connection.client);
+        }
+        finally {
+            games.releaseGame(game);
+        }
+        return true;
+    }
+
+    /**
+     * answer writes the reply to a request for a game that already exists
+     */
+    private void answer(byte opcode, GameSession game, ByteBuffer in, ByteBuffer out, GameServer.Client client) {
+        switch (opcode) {
+            case BinaryProtocol.JOIN:
+                int side = in.get() == 1 ? Board.BLACK_SIDE : Board.WHITE_SIDE;
+                GameSession.Validation joined = GameSession.Validation.NO_GAME;
+                if (game != null) {
+                    joined = game.join(side, client) ? GameSession.Validation.OK : GameSession.Validation.SIDE_TAKEN;
+                    if (joined == GameSession.Validation.OK) {
+                        client.getJoined().add(game.getId());
+                    }
+                }
+                out.put((byte) joined.ordinal());
+                break;
+            case BinaryProtocol.MOVE:
+                int from = in.get();
+                int to = in.get();
+                if (game == null) {
+                    out.put((byte) GameSession.Validation.NO_GAME.ordinal()).put((byte) 0).put((byte) 0);
+                    break;
+                }
+                GameSession.Outcome outcome = game.submit(client, from, to);
+                out.put((byte) outcome.getValidation().ordinal())
+                        .put((byte) outcome.getResult().ordinal())
+                        .put((byte) (outcome.isCheck() ? 1 : 0));
+                break;
+            default:
+                if (game != null) {
+                    games.removeGame(game.getId());
+                    client.getJoined().remove(game.getId());
+                }
+                out.put((byte) (game == null ? GameSession.Validation.NO_GAME : GameSession.Validation.OK).ordinal());
+        }
+    }
+
+    /**
+     * unavailable skips the rest of a request for a game that could not be read back
+     * and answers it with UNAVAILABLE
+     */
+    private static void unavailable(byte opcode, ByteBuffer in, ByteBuffer out) {
+        in.position(in.position() + BinaryProtocol.requestLength(opcode) - 5);
+        out.put((byte) GameSession.Validation.UNAVAILABLE.ordinal());
+        for (int i = 2; i < BinaryProtocol.replyLength(opcode); i++) {
+            out.put((byte) 0);
+        }
+    }
+
+    private void disconnect(SelectionKey key) {
+        Object attachment = key.attachment();
+        if (attachment instanceof Connection) {
+            Connection connection = (Connection) attachment;
+            games.leaveAll(connection.client);
+            forget(connection);
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        }
+        catch (IOException e) {
+            // the connection is gone either way
+        }
+    }
+
+    /**
+     * getRequests returns how many requests have been answered since the server started
+     * @return the request count
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * close stops the server and drops every connection
+     */
+    public void close() {
+        running = false;
+        selector.wakeup();
+        loader.shutdownNow();
+        try {
+            thread.join();
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            // closing anyway
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : GameServer.DEFAULT_PORT + 1;
+        BinaryServer server = new BinaryServer(new GameServer());
+        server.start(port);
+        System.out.println("listening on port " + server.getPort());
+    }
+}
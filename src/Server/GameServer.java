@@ -0,0 +1,365 @@
+package Server;
+
+import Game.Board;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameServer hosts any number of independent games in one process, without the Gui.
+ * Clients connect over TCP and send one command per line; every command gets one line back.
+ * <pre>
+ * new [chess | special]       game id
+ * join id white | black       ok, or error if the side is neither or another client plays it
+ * move id e2e4                ok ONGOING | WHITE_WINS | BLACK_WINS | STALEMATE, or error
+ * show id                     position text result
+ * close id                    ok
+ * quit
+ * </pre>
+ * Every connection is served by its own thread doing blocking reads. On a Java runtime with virtual
+ * threads these are virtual threads, so tens of thousands of clients cost little more than their
+ * games; older runtimes fall back to a pool of platform threads. The choice is made by reflection,
+ * so the same build runs on runtimes before Java 21 too.
+ *
+ * Games are kept by a SessionStore: the games in play stay in memory, and games left alone for
+ * IDLE_MILLIS, or pushed out when more than its capacity are in play, wait on disk until their next move.
+ */
+public class GameServer {
+
+    public static final int DEFAULT_PORT = 7070;
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final long IDLE_MILLIS = 5 * 60 * 1000;
+
+    private final SessionStore games;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+    private Timer idleTimer;
+    private volatile boolean running;
+
+    public GameServer() {
+        this(SessionStore.temporary(DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Constructor GameServer keeps its games in a given store
+     * @param games the store
+     */
+    public GameServer(SessionStore games) {
+        this.games = games;
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        virtual = virtualExecutor != null;
+        executor = virtual ? virtualExecutor : Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicLong count = new AtomicLong();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "game-client-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * newVirtualThreadExecutor looks up Executors.newVirtualThreadPerTaskExecutor, which only
+     * exists from Java 21 on
+     * @return the executor, or null if the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return null;
+        }
+        catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * start listens for clients on a port
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public void start(int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        running = true;
+        idleTimer = new Timer("game-server-idle", true);
+        idleTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    games.evictIdle(IDLE_MILLIS);
+                }
+                catch (RuntimeException e) {
+                    System.err.println("idle eviction failed: " + e);
+                }
+            }
+        }, IDLE_MILLIS, IDLE_MILLIS);
+        acceptThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptClients();
+            }
+        }, "game-server-accept");
+        acceptThread.start();
+    }
+
+    private void acceptClients() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        serve(socket);
+                    }
+                });
+            }
+            catch (IOException e) {
+                if (running) {
+                    System.err.println("accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * serve reads the commands of one client until it quits or disconnects,
+     * then gives up the sides it played
+     */
+    private void serve(Socket socket) {
+        Client client = new Client();
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            String line;
+            while ((line = in.readLine()) != null && !line.trim().equals("quit")) {
+                out.println(execute(client, line));
+            }
+        }
+        catch (IOException e) {
+            // the client went away; its sides are given up below
+        }
+        finally {
+            leaveAll(client);
+            try {
+                socket.close();
+            }
+            catch (IOException e) {
+                // nothing left to do with the socket
+            }
+        }
+    }
+
+    /**
+     * leaveAll gives up the sides a client played in every game it joined
+     * @param client the client
+     */
+    public void leaveAll(Client client) {
+        for (long id : client.joined) {
+            games.leave(id, client);
+        }
+        client.joined.clear();
+    }
+
+    /**
+     * Client is what the server knows about one connection: the ids of the games it joined
+     * and has not closed
+     */
+    public static class Client {
+        private final Set<Long> joined = new HashSet<Long>();
+
+        public Set<Long> getJoined() {
+            return joined;
+        }
+    }
+
+    /**
+     * execute carries out one command for a client
+     * @param client the client sending the command
+     * @param line the command
+     * @return the reply line
+     */
+    public String execute(Client client, String line) {
+        String[] tokens = line.trim().split("\\s+");
+        GameSession game = null;
+        try {
+            switch (tokens[0]) {
+                case "new":
+                    boolean special = tokens.length > 1 && tokens[1].equals("special");
+                    return "game " + newGame(special ? Board.SPECIAL_START_POSITION : Board.START_POSITION).getId();
+                case "join":
+                    game = game(tokens);
+                    if (tokens.length < 3 || !(tokens[2].equals("white") || tokens[2].equals("black"))) {
+                        return "error bad side";
+                    }
+                    int side = tokens[2].equals("black") ? Board.BLACK_SIDE : Board.WHITE_SIDE;
+                    if (!game.join(side, client)) {
+                        return "error side taken";
+                    }
+                    client.joined.add(game.getId());
+                    return "ok";
+                case "move":
+                    if (tokens.length < 3) {
+                        return "error missing move";
+                    }
+                    game = game(tokens);
+                    return "ok " + game.move(client, tokens[2]);
+                case "show":
+                    game = game(tokens);
+                    return "position " + game.getPosition() + " " + game.getResult();
+                case "close":
+                    game = game(tokens);
+                    removeGame(game.getId());
+                    client.joined.remove(game.getId());
+                    return "ok";
+                default:
+                    return "error unknown command " + tokens[0];
+            }
+        }
+        catch (IllegalArgumentException e) {
+            return "error " + e.getMessage();
+        }
+        catch (IllegalStateException e) {
+            return "error " + e.getMessage();
+        }
+        catch (UncheckedIOException e) {
+            return "error " + e.getMessage();
+        }
+        finally {
+            releaseGame(game);
+        }
+    }
+
+    /**
+     * game acquires the game named by the second token of a command
+     */
+    private GameSession game(String[] tokens) {
+        if (tokens.length < 2) {
+            throw new IllegalArgumentException("missing game id");
+        }
+        GameSession game = games.acquire(Long.parseLong(tokens[1]));
+        if (game == null) {
+            throw new IllegalArgumentException("no game " + tokens[1]);
+        }
+        return game;
+    }
+
+    /**
+     * newGame starts a game and registers it with the server
+     * @param position the starting position as read by Board.setPosition
+     * @return the game
+     */
+    public GameSession newGame(String position) {
+        GameSession game = new GameSession(nextId.getAndIncrement(), position);
+        games.add(game);
+        return game;
+    }
+
+    /**
+     * acquireGame looks up a game, reading it back from disk if it was evicted, and keeps it
+     * in memory until releaseGame
+     * @param id the game's id
+     * @return the game, or null if there is none with that id
+     */
+    public GameSession acquireGame(long id) {
+        return games.acquire(id);
+    }
+
+    /**
+     * acquireGameIfResident keeps a game in memory until releaseGame, but only if it is there already;
+     * it never waits for the disk
+     * @param id the game's id
+     * @return the game, or null if it is not in memory, either because it is on disk or because there is none
+     */
+    public GameSession acquireGameIfResident(long id) {
+        return games.acquireIfResident(id);
+    }
+
+    /**
+     * releaseGame gives back a game taken with acquireGame
+     * @param game the game, or null
+     */
+    public void releaseGame(GameSession game) {
+        games.release(game);
+    }
+
+    /**
+     * removeGame ends a game and forgets it
+     * @param id the game's id
+     * @return true if there was a game with that id
+     */
+    public boolean removeGame(long id) {
+        return games.remove(id);
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    public SessionStore getStore() {
+        return games;
+    }
+
+    /**
+     * isVirtual checks if clients are served on virtual threads
+     * @return true on a runtime with virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * close stops accepting clients and ends the client threads
+     */
+    public void close() {
+        running = false;
+        if (idleTimer != null) {
+            idleTimer.cancel();
+        }
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        }
+        catch (IOException e) {
+            // closing anyway
+        }
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer();
+        server.start(port);
+        System.out.println("listening on port " + server.getPort() + " with "
+                + (server.isVirtual() ? "virtual" : "platform") + " threads");
+    }
+}
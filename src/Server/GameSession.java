@@ -0,0 +1,364 @@
+package Server;
+
+import Game.Board;
+import Game.Move;
+import Pieces.Piece;
+import Player.Player;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GameSession is one hosted game: its own Board, the clients playing each side, and the result.
+ * A move is checked the way the Gui checks a click, with Piece.isAValidMove, and then for leaving
+ * the king attacked; the turn passes through the board's Players (Board.makeMove calls
+ * Player.updateTurn). After every move the session asks the board for check, checkmate and
+ * stalemate and ends the game when it is over.
+ *
+ * Several clients may send moves for the same game, so every access takes the session's lock.
+ * It is a ReentrantLock rather than synchronized, so a virtual thread waiting for it does not
+ * hold on to its carrier thread.
+ *
+ * A game a SessionStore evicts is written with save as its starting position and the moves played
+ * since, and brought back with load, which plays the moves again so repetitions are still seen.
+ */
+public class GameSession {
+
+    public enum Result {ONGOING, WHITE_WINS, BLACK_WINS, STALEMATE}
+
+    /**
+     * What became of a request: done, or why not. UNAVAILABLE means the game is on disk and could not be read back.
+     */
+    public enum Validation {OK, NO_GAME, GAME_OVER, NOT_YOUR_TURN, NO_PIECE, INVALID, KING_IN_CHECK, SIDE_TAKEN, UNAVAILABLE}
+
+    /**
+     * Outcome is what submit reports about a move: its validation and the result and check
+     * right after it, all taken under the session's lock, so another client's move cannot slip in between
+     */
+    public static final class Outcome {
+        private final Validation validation;
+        private final Result result;
+        private final boolean check;
+
+        private Outcome(Validation validation, Result result, boolean check) {
+            this.validation = validation;
+            this.result = result;
+            this.check = check;
+        }
+
+        public Validation getValidation() {
+            return validation;
+        }
+
+        public Result getResult() {
+            return result;
+        }
+
+        /**
+         * isCheck checks if the side to move was in check after the move
+         * @return true if it was in check
+         */
+        public boolean isCheck() {
+            return check;
+        }
+    }
+
+    private final long id;
+    private final String startPosition;
+    private final Board board = new Board();
+    private final Object[] players = new Object[2];
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Result result = Result.ONGOING;
+    private boolean check;
+    private long lastAccess = System.currentTimeMillis();
+
+    /**
+     * Constructor GameSession starts a game from a position
+     * @param id the number the server knows the game by
+     * @param position the position as read by Board.setPosition
+     */
+    public GameSession(long id, String position) {
+        this.id = id;
+        this.startPosition = position;
+        board.setPosition(position);
+        result = findResult();
+    }
+
+    /**
+     * join lets a client play one side. A side nobody has joined can be played by any client.
+     * @param side WHITE_SIDE or BLACK_SIDE
+     * @param player the client, compared by identity
+     * @return false if another client already plays the side
+     */
+    public boolean join(int side, Object player) {
+        lock.lock();
+        try {
+            if (players[side] != null && players[side] != player) {
+                return false;
+            }
+            players[side] = player;
+            touch();
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * leave gives up every side a client plays, so another client may join
+     * @param player the client
+     */
+    public void leave(Object player) {
+        lock.lock();
+        try {
+            for (int side = Board.WHITE_SIDE; side <= Board.BLACK_SIDE; side++) {
+                if (players[side] == player) {
+                    players[side] = null;
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * move plays a move for a client
+     * @param player the client sending the move
+     * @param text the move in coordinate notation, e.g. "e2e4"
+     * @return the result of the game after the move
+     * @throws IllegalStateException if the game is over or the side to move is played by another client
+     * @throws IllegalArgumentException if the move is not legal
+     */
+    public Result move(Object player, String text) {
+        int from;
+        int to;
+        try {
+            from = Move.parseSquare(text.substring(0, 2));
+            to = Move.parseSquare(text.substring(2));
+        }
+        catch (RuntimeException e) {
+            throw new IllegalArgumentException("illegal move " + text);
+        }
+        lock.lock();
+        try {
+            Validation validation = play(player, from, to);
+            switch (validation) {
+                case OK:
+                    return result;
+                case GAME_OVER:
+                    throw new IllegalStateException("game over " + result);
+                case NOT_YOUR_TURN:
+                    throw new IllegalStateException("not your turn");
+                default:
+                    throw new IllegalArgumentException("illegal move " + text);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * submit plays a move given by its squares for a client, if it is valid.
+     * The piece must belong to the side to move, Piece.isAValidMove must accept the target,
+     * and the move must not leave the mover's king attacked.
+     * @param player the client sending the move
+     * @param from the square the piece leaves, row * 8 + column
+     * @param to the square the piece lands on
+     * @return the validation, OK if the move was played and otherwise why it was not,
+     * with the result and check of the game after it
+     */
+    public Outcome submit(Object player, int from, int to) {
+        lock.lock();
+        try {
+            Validation validation = play(player, from, to);
+            return new Outcome(validation, result, check);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * play checks and plays a move for submit and move; the caller holds the lock
+     * @return OK if the move was played, otherwise why it was not
+     */
+    private Validation play(Object player, int from, int to) {
+        touch();
+        if (result != Result.ONGOING) {
+            return Validation.GAME_OVER;
+        }
+        Player current = board.getCurrentPlayer();
+        int side = Board.sideOf(current.getPlayerColor());
+        if (!current.thisTurn() || (players[side] != null && players[side] != player)) {
+            return Validation.NOT_YOUR_TURN;
+        }
+        if (from < 0 || from >= Board.SQUARES || to < 0 || to >= Board.SQUARES) {
+            return Validation.INVALID;
+        }
+        Piece piece = board.getPieceAt(from);
+        if (piece == null || piece.getSide() != side) {
+            return Validation.NO_PIECE;
+        }
+        if (!piece.isAValidMove(board, from / 8, from % 8, to / 8, to % 8)) {
+            return Validation.INVALID;
+        }
+        int move = board.createMove(from, to);
+        if (!board.isLegal(move)) {
+            return Validation.KING_IN_CHECK;
+        }
+        board.makeMove(move);
+        result = findResult();
+        return Validation.OK;
+    }
+
+    /**
+     * findResult decides if the side to move is checkmated or stalemated
+     */
+    private Result findResult() {
+        String user = board.getSideToMove() == Board.WHITE_SIDE ? Board.white : Board.black;
+        String opponent = user == Board.white ? Board.black : Board.white;
+        check = board.check(board, user, opponent);
+        if (board.checkMate(board, user, opponent)) {
+            return user == Board.white ? Result.BLACK_WINS : Result.WHITE_WINS;
+        }
+        if (board.staleMate(board, user, opponent)) {
+            return Result.STALEMATE;
+        }
+        return Result.ONGOING;
+    }
+
+    private void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * getPosition returns the position as written by Board.getPosition
+     * @return the position
+     */
+    public String getPosition() {
+        lock.lock();
+        try {
+            touch();
+            return board.getPosition();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public Result getResult() {
+        lock.lock();
+        try {
+            return result;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * isCheck checks if the side to move is in check
+     * @return true if the side to move is in check
+     */
+    public boolean isCheck() {
+        lock.lock();
+        try {
+            return check;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * save writes the game in its compact form: the starting position, then the squares of every move
+     * @param out where the game is written
+     * @throws IOException if it cannot be written
+     */
+    void save(DataOutput out) throws IOException {
+        lock.lock();
+        try {
+            int[] moves = board.getMoveHistory();
+            out.writeUTF(startPosition);
+            out.writeInt(moves.length);
+            for (int move : moves) {
+                out.writeByte(Move.from(move));
+                out.writeByte(Move.to(move));
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * load reads a game written by save and plays its moves again
+     * @param id the number the server knows the game by
+     * @param in where the game is read from
+     * @return the game as it was saved, without its players
+     * @throws IOException if it cannot be read
+     */
+    static GameSession load(long id, DataInput in) throws IOException {
+        GameSession game = new GameSession(id, in.readUTF());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int from = in.readUnsignedByte();
+            int to = in.readUnsignedByte();
+            game.board.makeMove(game.board.createMove(from, to));
+        }
+        game.result = game.findResult();
+        return game;
+    }
+
+    /**
+     * getPlayers returns the clients playing each side, to be kept while the game is on disk
+     * @return the clients by side, null where nobody joined
+     */
+    Object[] getPlayers() {
+        lock.lock();
+        try {
+            return players.clone();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * setPlayers gives a reloaded game back the clients that played it
+     * @param playing the clients by side
+     */
+    void setPlayers(Object[] playing) {
+        lock.lock();
+        try {
+            System.arraycopy(playing, 0, players, 0, players.length);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * getLastAccess returns when a client last used the game
+     * @return the time in milliseconds
+     */
+    public long getLastAccess() {
+        lock.lock();
+        try {
+            return lastAccess;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package Server;
+
+import Game.Move;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadGenerator drives a BinaryServer from a number of connections, each playing its own game,
+ * to measure the request rate. Every connection sends a pipeline of MOVE requests in one write,
+ * knights going out and back so the game never ends, then reads the replies and sends the next batch.
+ *
+ * Usage: LoadGenerator [host] [port] [connections] [pipeline] [seconds]
+ */
+public class LoadGenerator {
+
+    private static final String[] SHUFFLE = {"g1f3", "g8f6", "f3g1", "f6g8"};
+
+    private final InetSocketAddress address;
+    private final int pipeline;
+    private final AtomicLong replies = new AtomicLong();
+    private volatile boolean running = true;
+
+    public LoadGenerator(InetSocketAddress address, int pipeline) {
+        this.address = address;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * play opens a connection, starts a game and sends batches of moves until stopped
+     * @throws IOException if the connection fails or a move is turned down
+     */
+    public void play() throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        try {
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer request = ByteBuffer.allocate(pipeline * BinaryProtocol.MAX_REQUEST);
+            ByteBuffer reply = ByteBuffer.allocate(pipeline * BinaryProtocol.MAX_REPLY);
+            BinaryProtocol.putNew(request, false);
+            exchange(channel, request, reply, BinaryProtocol.replyLength(BinaryProtocol.NEW));
+            int game = reply.getInt(2);
+
+            int moveNumber = 0;
+            int moveReply = BinaryProtocol.replyLength(BinaryProtocol.MOVE);
+            while (running) {
+                for (int i = 0; i < pipeline; i++) {
+                    String move = SHUFFLE[moveNumber++ % SHUFFLE.length];
+                    BinaryProtocol.putMove(request, game,
+                            Move.parseSquare(move.substring(0, 2)), Move.parseSquare(move.substring(2)));
+                }
+                exchange(channel, request, reply, pipeline * moveReply);
+                for (int i = 0; i < pipeline; i++) {
+                    if (BinaryProtocol.validation(reply.get(i * moveReply + 1)) != GameSession.Validation.OK) {
+                        throw new IOException("move turned down: " + BinaryProtocol.validation(reply.get(i * moveReply + 1)));
+                    }
+                }
+                replies.addAndGet(pipeline);
+            }
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * exchange writes the requests and reads a number of reply bytes
+     */
+    private static void exchange(SocketChannel channel, ByteBuffer request, ByteBuffer reply, int length)
+            throws IOException {
+        request.flip();
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+        request.clear();
+        reply.clear();
+        reply.limit(length);
+        while (reply.hasRemaining()) {
+            if (channel.read(reply) < 0) {
+                throw new IOException("server closed the connection");
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public long getReplies() {
+        return replies.get();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT + 1;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int pipeline = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        final LoadGenerator generator = new LoadGenerator(new InetSocketAddress(host, port), pipeline);
+        Thread[] threads = new Thread[connections];
+        for (int i = 0; i < connections; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        generator.play();
+                    }
+                    catch (IOException e) {
+                        System.err.println(e.getMessage());
+                    }
+                }
+            }, "load-" + i);
+            threads[i].start();
+        }
+        Thread.sleep(seconds * 1000L);
+        generator.stop();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println(generator.getReplies() + " moves in " + seconds + " s, "
+                + generator.getReplies() / seconds + " moves/s");
+    }
+}
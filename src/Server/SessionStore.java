@@ -0,0 +1,623 @@
+package Server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SessionStore keeps the games of a server. At most a fixed number of games are kept in memory,
+ * in least recently used order; when another one is needed, the game used longest ago is written
+ * to a file in the spill directory and dropped. The file holds only the starting position and the
+ * squares of the moves, a few hundred bytes instead of a whole Board with its Tiles and Pieces.
+ * The next time the game is asked for, it is read back and its moves played again, so a client
+ * never notices. The heap therefore grows with the games in play, not with every game ever started.
+ *
+ * A game is pinned between acquire and release and is not evicted while pinned, so nobody holds on
+ * to a game that has already gone to disk. The clients playing a game on disk are kept in memory,
+ * as they only live as long as their connections.
+ *
+ * The store's lock only guards the bookkeeping; files are written, read and deleted outside it,
+ * so one game's disk access holds up no other game. Games evicted by add and acquire are written
+ * by a background thread, so nobody asking for a game waits for another game's write. While its
+ * file is being written a game is still in memory, and a client asking for it takes it straight back.
+ * A game on disk is read back by the thread that asks for it with acquire; acquireIfResident never
+ * touches the disk or waits, for a server thread that must not block. While a game's file is busy,
+ * nobody else reads or writes that file. The lock is a ReentrantLock, like GameSession's, so a
+ * virtual thread waiting for it does not hold on to its carrier thread.
+ */
+public class SessionStore {
+
+    private static final String SUFFIX = ".game";
+
+    private final int capacity;
+    private final File directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final LinkedHashMap<Long, GameSession> games = new LinkedHashMap<Long, GameSession>();
+    private final Map<Long, GameSession> spilling = new HashMap<Long, GameSession>();
+    private final Set<Long> busy = new HashSet<Long>();
+    private final Map<Long, Integer> pins = new HashMap<Long, Integer>();
+    private final Map<Long, Object[]> players = new HashMap<Long, Object[]>();
+
+    private final Executor spiller = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "session-spill");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private int spilled;
+    private long evictions;
+    private long loads;
+
+    /**
+     * Constructor SessionStore keeps games in memory up to a capacity and spills the rest to a directory
+     * @param capacity the most games kept in memory
+     * @param directory where evicted games are written; it is created if missing
+     */
+    public SessionStore(int capacity, File directory) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity " + capacity);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("cannot create " + directory);
+        }
+        this.capacity = capacity;
+        this.directory = directory;
+    }
+
+    /**
+     * temporary creates a store that spills to a new temporary directory
+     * @param capacity the most games kept in memory
+     * @return the store
+     */
+    public static SessionStore temporary(int capacity) {
+        try {
+            File directory = Files.createTempDirectory("games").toFile();
+            directory.deleteOnExit();
+            return new SessionStore(capacity, directory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * add keeps a new game, evicting the least recently used one if memory is full
+     * @param game the game
+     */
+    public void add(GameSession game) {
+        List<GameSession> victims;
+        lock.lock();
+        try {
+            games.put(game.getId(), game);
+            victims = evict(game);
+        }
+        finally {
+            lock.unlock();
+        }
+        spillLater(victims);
+    }
+
+    /**
+     * acquire finds a game, reading it back from disk if it was evicted, and pins it in memory
+     * @param id the game's id
+     * @return the game, or null if there is none with that id; it must be given back with release
+     * @throws UncheckedIOException if the game is on disk but cannot be read
+     */
+    public GameSession acquire(long id) {
+        GameSession game;
+        List<GameSession> victims = Collections.emptyList();
+        lock.lock();
+        try {
+            game = resident(id);
+            while (game == null && busy.contains(id)) {
+                released.awaitUninterruptibly();
+                game = resident(id);
+            }
+            if (game != null) {
+                pin(id);
+                victims = evict(game);
+            }
+            else {
+                busy.add(id);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        if (game == null) {
+            GameSession read;
+            try {
+                read = read(id);
+            }
+            catch (IOException e) {
+                free(id);
+                throw new UncheckedIOException("cannot load game " + id, e);
+            }
+            lock.lock();
+            try {
+                busy.remove(id);
+                released.signalAll();
+                if (read == null) {
+                    return null;
+                }
+                game = read;
+                games.put(id, game);
+                spilled--;
+                loads++;
+                Object[] playing = players.remove(id);
+                if (playing != null) {
+                    game.setPlayers(playing);
+                }
+                pin(id);
+                victims = evict(game);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        spillLater(victims);
+        return game;
+    }
+
+    /**
+     * acquireIfResident pins a game only if it is in memory. It never reads the disk or waits for
+     * another thread's disk access, so a thread that must not block can call it and hand a miss to
+     * a thread that may call acquire.
+     * @param id the game's id
+     * @return the game, or null if it is not in memory; it must be given back with release
+     */
+    public GameSession acquireIfResident(long id) {
+        GameSession game;
+        List<GameSession> victims = Collections.emptyList();
+        lock.lock();
+        try {
+            game = resident(id);
+            if (game != null) {
+                pin(id);
+                victims = evict(game);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        spillLater(victims);
+        return game;
+    }
+
+    /**
+     * resident finds a game that is in memory, taking it back if its file is still being written,
+     * and makes it the most recently used. Only acquire uses a game, so only it changes the order;
+     * the map keeps insertion order, and a lookup anywhere else leaves the order alone.
+     */
+    private GameSession resident(long id) {
+        GameSession game = games.remove(id);
+        if (game == null) {
+            game = spilling.remove(id);
+        }
+        if (game != null) {
+            games.put(id, game);
+        }
+        return game;
+    }
+
+    /**
+     * pin counts one more acquire of a game; pins only holds games acquired more times than released
+     */
+    private void pin(long id) {
+        Integer count = pins.get(id);
+        pins.put(id, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * release unpins a game taken with acquire, so it may be evicted again. Games kept past
+     * the capacity because they were pinned are evicted now.
+     * @param game the game, or null
+     */
+    public void release(GameSession game) {
+        if (game == null) {
+            return;
+        }
+        List<GameSession> victims;
+        lock.lock();
+        try {
+            Integer count = pins.get(game.getId());
+            if (count != null && count > 1) {
+                pins.put(game.getId(), count - 1);
+            }
+            else {
+                pins.remove(game.getId());
+            }
+            victims = evict(null);
+        }
+        finally {
+            lock.unlock();
+        }
+        spillLater(victims);
+    }
+
+    /**
+     * remove forgets a game, in memory or on disk
+     * @param id the game's id
+     * @return true if there was a game with that id
+     */
+    public boolean remove(long id) {
+        lock.lock();
+        try {
+            players.remove(id);
+            if (games.remove(id) != null || spilling.remove(id) != null) {
+                return true;
+            }
+            while (busy.contains(id)) {
+                released.awaitUninterruptibly();
+            }
+            if (games.remove(id) != null || spilling.remove(id) != null) {
+                return true;
+            }
+            busy.add(id);
+        }
+        finally {
+            lock.unlock();
+        }
+        boolean deleted = file(id).delete();
+        lock.lock();
+        try {
+            if (deleted) {
+                spilled--;
+            }
+            busy.remove(id);
+            released.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+        return deleted;
+    }
+
+    /**
+     * leave gives up the sides a client plays in a game, without reading the game back if it is on disk
+     * @param id the game's id
+     * @param player the client
+     */
+    public void leave(long id, Object player) {
+        lock.lock();
+        try {
+            GameSession game = games.get(id);
+            if (game == null) {
+                game = spilling.get(id);
+            }
+            if (game != null) {
+                game.leave(player);
+                return;
+            }
+            Object[] playing = players.get(id);
+            if (playing != null) {
+                boolean anyone = false;
+                for (int side = 0; side < playing.length; side++) {
+                    if (playing[side] == player) {
+                        playing[side] = null;
+                    }
+                    anyone |= playing[side] != null;
+                }
+                if (!anyone) {
+                    players.remove(id);
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * evictIdle writes every game nobody has used for a while to disk, however full memory is
+     * @param idleMillis how long a game must have been left alone
+     * @return the number of games written
+     */
+    public int evictIdle(long idleMillis) {
+        long before = System.currentTimeMillis() - idleMillis;
+        List<GameSession> victims = new ArrayList<GameSession>();
+        lock.lock();
+        try {
+            Iterator<GameSession> iterator = games.values().iterator();
+            while (iterator.hasNext()) {
+                GameSession game = iterator.next();
+                if (!pins.containsKey(game.getId()) && !busy.contains(game.getId()) && game.getLastAccess() < before) {
+                    iterator.remove();
+                    victims.add(startSpill(game));
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return spill(victims);
+    }
+
+    /**
+     * evict picks the least recently used games that are not pinned until memory is within capacity,
+     * and marks them as being written. The caller has them written once it has let go of the lock.
+     * @param keep the game just asked for, which stays even if every other game is pinned
+     * @return the games to write
+     */
+    private List<GameSession> evict(GameSession keep) {
+        if (games.size() <= capacity) {
+            return Collections.emptyList();
+        }
+        List<GameSession> victims = new ArrayList<GameSession>();
+        Iterator<GameSession> iterator = games.values().iterator();
+        while (games.size() > capacity && iterator.hasNext()) {
+            GameSession game = iterator.next();
+            if (!pins.containsKey(game.getId()) && game != keep && !busy.contains(game.getId())) {
+                iterator.remove();
+                victims.add(startSpill(game));
+            }
+        }
+        return victims;
+    }
+
+    /**
+     * spillLater hands games picked by evict to the background thread
+     */
+    private void spillLater(final List<GameSession> victims) {
+        if (victims.isEmpty()) {
+            return;
+        }
+        spiller.execute(new Runnable() {
+            @Override
+            public void run() {
+                spill(victims);
+            }
+        });
+    }
+
+    /**
+     * flush waits until every game evicted so far has been written, or has stayed in memory
+     * because it could not be
+     */
+    public void flush() {
+        FutureTask<Void> done = new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, null);
+        spiller.execute(done);
+        try {
+            done.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private GameSession startSpill(GameSession game) {
+        spilling.put(game.getId(), game);
+        busy.add(game.getId());
+        return game;
+    }
+
+    /**
+     * spill writes games picked by evict to their files. A game taken back while it was being written
+     * stays in memory and its file is deleted; a game that cannot be written stays in memory too.
+     * A game taken back could not be evicted while its file was busy, so once the files are done
+     * memory is checked against the capacity again.
+     * @return the number of games now on disk
+     */
+    private int spill(List<GameSession> victims) {
+        int count = 0;
+        while (!victims.isEmpty()) {
+            boolean takenBack = false;
+            for (GameSession game : victims) {
+                long id = game.getId();
+                boolean written = write(game);
+                boolean stale = false;
+                lock.lock();
+                try {
+                    if (spilling.get(id) == game) {
+                        spilling.remove(id);
+                        if (written) {
+                            keepPlayers(game);
+                            spilled++;
+                            evictions++;
+                            count++;
+                        }
+                        else {
+                            games.put(id, game);
+                        }
+                    }
+                    else {
+                        stale = written;
+                        takenBack = true;
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
+                if (stale) {
+                    file(id).delete();
+                }
+                free(id);
+            }
+            victims = Collections.emptyList();
+            if (takenBack) {
+                lock.lock();
+                try {
+                    victims = evict(null);
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * keepPlayers holds on to the clients of a game going to disk
+     */
+    private void keepPlayers(GameSession game) {
+        Object[] playing = game.getPlayers();
+        for (Object player : playing) {
+            if (player != null) {
+                players.put(game.getId(), playing);
+                return;
+            }
+        }
+    }
+
+    /**
+     * free lets others at a game's file again
+     */
+    private void free(long id) {
+        lock.lock();
+        try {
+            busy.remove(id);
+            released.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * write saves a game to its file
+     * @return false if it could not be written; the reason is logged and no file is left behind
+     */
+    private boolean write(GameSession game) {
+        File file = file(game.getId());
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            try {
+                game.save(out);
+            }
+            finally {
+                out.close();
+            }
+            return true;
+        }
+        catch (IOException e) {
+            file.delete();
+            System.err.println("cannot evict game " + game.getId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * read loads an evicted game and deletes its file
+     * @return the game, or null if it is not on disk
+     * @throws IOException if the file cannot be read or deleted, or does not hold a game
+     */
+    private GameSession read(long id) throws IOException {
+        File file = file(id);
+        if (!file.isFile()) {
+            return null;
+        }
+        GameSession game;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            game = GameSession.load(id, in);
+        }
+        catch (RuntimeException e) {
+            throw new IOException("bad game file " + file, e);
+        }
+        finally {
+            in.close();
+        }
+        if (!file.delete()) {
+            throw new IOException("cannot delete " + file);
+        }
+        return game;
+    }
+
+    private File file(long id) {
+        return new File(directory, id + SUFFIX);
+    }
+
+    /**
+     * size returns the number of games, in memory and on disk
+     * @return the game count
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return games.size() + spilling.size() + spilled;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * getResident returns the number of games in memory
+     * @return the count, at most the capacity unless more games are pinned or being written
+     */
+    public int getResident() {
+        lock.lock();
+        try {
+            return games.size() + spilling.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEvictions() {
+        lock.lock();
+        try {
+            return evictions;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLoads() {
+        lock.lock();
+        try {
+            return loads;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+}